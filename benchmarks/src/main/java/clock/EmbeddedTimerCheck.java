@@ -0,0 +1,81 @@
+package clock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import clock.Deadline.State;
+
+/**
+ * Checks that an {@link EmbeddedTimer} stays silent without an initialized {@link Logger}: a timer from 08:00 on a
+ * {@link SimulatedTimeSource} whose wall-clock jumps from 12:00 to 18:00, over the ending at 16:45, runs until it
+ * publishes its overtime while {@code System.out} is captured. The check exits with status 1 if the timer wrote
+ * anything to {@code System.out} or did not reach the overtime behind the jump.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar clock.EmbeddedTimerCheck
+ * </pre>
+ */
+public class EmbeddedTimerCheck {
+
+	private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+
+	public static void main(String[] args) throws InterruptedException {
+		LocalDateTime start = LocalDateTime.of(2024, 3, 4, 8, 0);
+		long startMillis = start.atZone(ZONE).toInstant().toEpochMilli();
+		SimulatedTimeSource source = new SimulatedTimeSource(start.atZone(ZONE).toInstant(), ZONE);
+		source.scheduleJump(startMillis + 4 * 60 * WakeupScheduler.MILLIS_PER_MINUTE, 6 * 60 * WakeupScheduler.MILLIS_PER_MINUTE);
+		Deadline deadline = Deadline.of(start.toLocalTime(), 8, LocalTime.of(0, 45), LocalTime.MIDNIGHT, LocalTime.MIDNIGHT);
+
+		CountDownLatch overtime = new CountDownLatch(1);
+		LocalTime[] firstOvertime = {null};
+		ByteArrayOutputStream captured = new ByteArrayOutputStream();
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+		try(EmbeddedTimer timer = new EmbeddedTimer(deadline, source)) {
+			timer.events().subscribe(new Flow.Subscriber<TimerEvent>() {
+				@Override
+				public void onSubscribe(Flow.Subscription subscription) {
+					subscription.request(Long.MAX_VALUE);
+				}
+
+				@Override
+				public void onNext(TimerEvent event) {
+					if(event.getState() == State.OVERTIME && firstOvertime[0] == null) {
+						firstOvertime[0] = event.getNow();
+						overtime.countDown();
+					}
+				}
+
+				@Override
+				public void onError(Throwable throwable) {
+				}
+
+				@Override
+				public void onComplete() {
+				}
+			});
+			timer.start();
+			overtime.await(10, TimeUnit.SECONDS);
+		} finally {
+			System.setOut(out);
+		}
+
+		String written = captured.toString(StandardCharsets.UTF_8);
+		// the first overtime is published on the first update after the jump
+		boolean jumped = firstOvertime[0] != null && !firstOvertime[0].isBefore(LocalTime.of(18, 0));
+		System.out.println("first overtime at " + firstOvertime[0] + ", " + written.length() + " characters written to System.out"
+				+ (written.isEmpty() ? "" : ": " + written.strip()));
+		boolean failed = !written.isEmpty() || !jumped;
+		System.out.println(failed ? "Result: the embedded timer was not silent across the jump" : "Result: the embedded timer stayed silent across the jump");
+		if(failed) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package clock;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link LocalTimeParser#fromString(String)}, the primitive fast path and the bulk variant for every
+ * supported input form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalTimeParserBenchmark {
+
+	@Param({"7:20", "12:05", "45", "5"})
+	public String input;
+
+	private static final int COLUMN_SIZE = 1024;
+
+	private byte[] column;
+	private final int[] minutesOfDay = new int[COLUMN_SIZE];
+
+	@Setup
+	public void setup() {
+		column = (input + "\n").repeat(COLUMN_SIZE).getBytes(StandardCharsets.US_ASCII);
+	}
+
+	@Benchmark
+	public LocalTime fromString() {
+		return LocalTimeParser.fromString(input);
+	}
+
+	@Benchmark
+	public int parseMinuteOfDay() {
+		return LocalTimeParser.parseMinuteOfDay(input);
+	}
+
+	@Benchmark
+	public int parseInvalid() {
+		return LocalTimeParser.parseMinuteOfDay("25:99");
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COLUMN_SIZE)
+	public int parseLines() {
+		return LocalTimeParser.parseLines(column, 0, column.length, minutesOfDay);
+	}
+}
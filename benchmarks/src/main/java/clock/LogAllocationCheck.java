@@ -0,0 +1,109 @@
+package clock;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.time.ZoneId;
+
+import clock.Logger.Level;
+
+/**
+ * Checks that logging allocates nothing per line in the steady state. The bytes allocated by the current thread
+ * are read from the {@link com.sun.management.ThreadMXBean} around encoding entries with the {@link LogEncoder} in
+ * both modes, with timestamps that advance by a second every thousand entries, and around entries logged through
+ * the {@link Logger} into a log-file. Every phase is warmed up first, so the JIT compiled it before measuring; the
+ * check exits with status 1 if a phase allocated more than a constant slack that does not grow with the entries.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar clock.LogAllocationCheck [entries]
+ * </pre>
+ */
+public class LogAllocationCheck {
+
+	private static final long SLACK_BYTES = 4096;
+	private static final String ASCII = "Timer runs out at 17:15 in 8 hours 45 minutes.";
+	private static final String UNICODE = "\u00dcberstunden: 45 Minuten, Pause 00:45 \u2013 l\u00e4uft \u20ac";
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	public static void main(String[] args) throws Exception {
+		int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		if(!THREADS.isThreadAllocatedMemorySupported()) {
+			System.out.println("Result: the JVM does not count allocated bytes per thread");
+			System.exit(1);
+		}
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+
+		boolean failed = false;
+		failed |= check("LogEncoder", entries, count -> encode(new LogEncoder(LogEncoder.DEFAULT_CAPACITY, ZoneId.of("Europe/Berlin"), false), count));
+		failed |= check("LogEncoder atomic", entries, count -> encode(new LogEncoder(LogEncoder.DEFAULT_CAPACITY, ZoneId.of("Europe/Berlin"), true), count));
+
+		File directory = Files.createTempDirectory("clock-allocation").toFile();
+		File logfile = new File(directory, "clock.log");
+		try {
+			Logger.init(logfile, Level.INFO);
+			Logger.enableSmartflush();
+			failed |= check("Logger", entries, LogAllocationCheck::log);
+			Logger.close();
+		} finally {
+			Files.deleteIfExists(logfile.toPath());
+			Files.deleteIfExists(directory.toPath());
+		}
+
+		System.out.println(failed ? "Result: logging allocates per line" : "Result: logging allocates nothing per line");
+		if(failed) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @return {@code true} if the phase allocated more than the slack
+	 */
+	private static boolean check(String name, int entries, Phase phase) throws Exception {
+		phase.run(entries);
+		long thread = Thread.currentThread().getId();
+		long before = THREADS.getThreadAllocatedBytes(thread);
+		phase.run(entries);
+		long allocated = THREADS.getThreadAllocatedBytes(thread) - before;
+		System.out.println(String.format("%-18s %,d entries, %,d bytes allocated (%.3f per entry)", name, entries, allocated, (double) allocated / entries));
+		return allocated > SLACK_BYTES;
+	}
+
+	private static void encode(LogEncoder encoder, int entries) throws Exception {
+		WritableByteChannel discard = new WritableByteChannel() {
+			@Override
+			public int write(ByteBuffer src) {
+				int written = src.remaining();
+				src.position(src.limit());
+				return written;
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		long timestamp = 1_700_000_000_000L;
+		for(int i = 0; i < entries; i++) {
+			encoder.encode(timestamp + i, (i & 1) == 0 ? Level.INFO : Level.WARNING, (i & 2) == 0 ? ASCII : UNICODE, discard);
+		}
+		encoder.drain(discard);
+	}
+
+	private static void log(int entries) {
+		for(int i = 0; i < entries; i++) {
+			Logger.info((i & 1) == 0 ? ASCII : UNICODE);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Phase {
+		void run(int entries) throws Exception;
+	}
+}
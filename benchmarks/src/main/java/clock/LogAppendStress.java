@@ -0,0 +1,150 @@
+package clock;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stress test for concurrent appends to one shared log-file. Starts several writer processes with several threads
+ * each that log entries of random length through the {@link Logger}, some of them longer than the encoding buffer,
+ * while flushing after every entry and grouped by smartflush in turns. Afterwards every entry is checked with the
+ * {@link LogVerifier} and against its expected content, and the throughput and the number of corrupt, missing and
+ * duplicate entries are reported.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar clock.LogAppendStress [processes] [threads] [entries per thread]
+ * </pre>
+ */
+public class LogAppendStress {
+
+	private static final Pattern ENTRY = Pattern.compile("writer=(\\d+) thread=(\\d+) seq=(\\d+) length=(\\d+) payload=(.*)");
+	private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789äöüß€";
+
+	public static void main(String[] args) throws Exception {
+		if(args.length > 0 && args[0].equals("writer")) {
+			write(new File(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+			return;
+		}
+		int processes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int entries = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+		File logfile = File.createTempFile("clock-stress", ".log");
+		try {
+			long started = System.nanoTime();
+			List<Process> writers = new ArrayList<>();
+			for(int writer = 0; writer < processes; writer++) {
+				writers.add(new ProcessBuilder(javaBinary(), "-cp", System.getProperty("java.class.path"), LogAppendStress.class.getName(), "writer",
+						logfile.getAbsolutePath(), String.valueOf(writer), String.valueOf(threads), String.valueOf(entries)).inheritIO().start());
+			}
+			for(Process writer : writers) {
+				if(writer.waitFor() != 0) {
+					throw new IllegalStateException("Writer process failed with exit code " + writer.exitValue() + ".");
+				}
+			}
+			long nanos = System.nanoTime() - started;
+
+			long expected = (long) processes * threads * entries;
+			LogVerifier.Report report = new LogVerifier().verify(logfile);
+			long[] content = checkContent(logfile, processes, threads, entries);
+			System.out.println(processes + " processes x " + threads + " threads x " + entries + " entries, " + Files.size(logfile.toPath()) / (1024 * 1024) + " MiB");
+			System.out.println("Throughput: " + Math.round(expected * 1e9 / nanos) + " entries per second (" + nanos / 1_000_000 + "ms including process start)");
+			System.out.println("Integrity:  " + report);
+			System.out.println("Content:    " + content[0] + " mismatching, " + content[1] + " missing, " + content[2] + " duplicate entries");
+			boolean intact = report.isIntact() && report.getEntries() == expected && content[0] == 0 && content[1] == 0 && content[2] == 0;
+			System.out.println(intact ? "Result:     zero corruption" : "Result:     CORRUPTED");
+			if(!intact) {
+				System.exit(1);
+			}
+		} finally {
+			Files.deleteIfExists(logfile.toPath());
+		}
+	}
+
+	private static void write(File logfile, int writer, int threads, int entries) throws Exception {
+		Logger.init(logfile, Logger.Level.INFO);
+		if(writer % 2 == 1) {
+			Logger.enableSmartflush();
+		}
+		List<Thread> running = new ArrayList<>();
+		for(int thread = 0; thread < threads; thread++) {
+			int id = thread;
+			Thread t = new Thread(() -> {
+				SplittableRandom random = new SplittableRandom(writer * 1000L + id);
+				for(int seq = 0; seq < entries; seq++) {
+					// mostly short entries, every 50th longer than the encoding buffer
+					int length = seq % 50 == 0 ? LogEncoder.DEFAULT_CAPACITY / 2 + random.nextInt(LogEncoder.DEFAULT_CAPACITY / 2) : random.nextInt(200);
+					Logger.info("writer={} thread={} seq={} length={} payload={}", writer, id, seq, length, payload(writer, id, seq, length));
+				}
+			});
+			t.start();
+			running.add(t);
+		}
+		for(Thread t : running) {
+			t.join();
+		}
+		Logger.close();
+	}
+
+	/**
+	 * @return counts of mismatching, missing and duplicate entries
+	 */
+	private static long[] checkContent(File logfile, int processes, int threads, int entries) throws IOException {
+		byte[][] seen = new byte[processes * threads][entries];
+		long mismatching = 0;
+		long duplicate = 0;
+		try(BufferedReader reader = Files.newBufferedReader(logfile.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				int message = line.indexOf(" | ", 22);
+				Matcher matcher = ENTRY.matcher(message < 0 ? "" : line.substring(message + 3));
+				if(!matcher.matches()) {
+					mismatching++;
+					continue;
+				}
+				int writer = Integer.parseInt(matcher.group(1));
+				int thread = Integer.parseInt(matcher.group(2));
+				int seq = Integer.parseInt(matcher.group(3));
+				int length = Integer.parseInt(matcher.group(4));
+				String payload = matcher.group(5);
+				String expected = payload(writer, thread, seq, length);
+				// long entries are cut off at the end of the record, the kept part has to match
+				boolean truncated = payload.endsWith(" [truncated]") && expected.startsWith(payload.substring(0, payload.length() - 12));
+				if(!payload.equals(expected) && !truncated) {
+					mismatching++;
+				} else if(seen[writer * threads + thread][seq]++ > 0) {
+					duplicate++;
+				}
+			}
+		}
+		long missing = 0;
+		for(byte[] writer : seen) {
+			for(byte count : writer) {
+				if(count == 0) {
+					missing++;
+				}
+			}
+		}
+		return new long[] {mismatching, missing, duplicate};
+	}
+
+	private static String payload(int writer, int thread, int seq, int length) {
+		SplittableRandom random = new SplittableRandom(((long) writer << 40) ^ ((long) thread << 32) ^ seq);
+		StringBuilder builder = new StringBuilder(length);
+		for(int i = 0; i < length; i++) {
+			builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		}
+		return builder.toString();
+	}
+
+	private static String javaBinary() {
+		return System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+	}
+}
@@ -0,0 +1,75 @@
+package clock;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link LogQuery} runs over a generated log-file of a whole year: a month of warnings, which skips to the
+ * month through the {@link LogIndex}, and a text search over every entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LogQueryBenchmark {
+
+	@Param({"1000"})
+	public int entriesPerDay;
+
+	private File logfile;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		logfile = File.createTempFile("clock-query", ".log");
+		SplittableRandom random = new SplittableRandom(42);
+		try(BufferedWriter writer = Files.newBufferedWriter(logfile.toPath(), StandardCharsets.UTF_8)) {
+			for(LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() == 2024; date = date.plusDays(1)) {
+				for(int i = 0; i < entriesPerDay; i++) {
+					String level = i % 100 == 0 ? "WARNING" : "INFO   ";
+					writer.write(date + String.format(" %02d:%02d:%02d | %s | Timer state %d%n", i / 3600 % 24, i / 60 % 60, i % 60, level, random.nextInt()));
+				}
+				writer.write(date + " 23:59:59 | WARNING | Process was killed irregularly!\n");
+			}
+		}
+		// build the index outside of the measurement
+		LogIndex.open(logfile);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(logfile.toPath());
+		Files.deleteIfExists(LogIndex.indexFile(logfile).toPath());
+	}
+
+	@Benchmark
+	public LogQuery.Result warningsOfMonth() throws IOException {
+		return new LogQuery(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), Logger.Level.WARNING, null).run(logfile, true, entry -> {});
+	}
+
+	@Benchmark
+	public LogQuery.Result textOfYear() throws IOException {
+		return new LogQuery(null, null, null, "killed irregularly").run(logfile, true, entry -> {});
+	}
+}
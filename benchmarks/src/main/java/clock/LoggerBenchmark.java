@@ -0,0 +1,117 @@
+package clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link Logger} write paths with flushing after every entry and with smartflush, for an
+ * enabled level, a suppressed level and errors, both written in full and collapsed as repeats. The suppressed
+ * variants with parameters or a supplier should cost no more than the level check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerBenchmark {
+
+	@Param({"false", "true"})
+	public boolean smartflush;
+
+	private final Exception exception = new IOException("Benchmark exception");
+	private final LocalTime ending = LocalTime.of(16, 45);
+	private final String remaining = "7 hours 59 minutes";
+	private long wakeups = 480;
+	private File logfile;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		logfile = File.createTempFile("clock-benchmark", ".log");
+		Logger.init(logfile, Logger.Level.INFO);
+		if(smartflush) {
+			Logger.enableSmartflush();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Logger.close();
+		Files.deleteIfExists(logfile.toPath());
+	}
+
+	@Benchmark
+	public void info() {
+		Logger.info("Timer runs out at 16:45 in 7 hours 59 minutes.");
+	}
+
+	@Benchmark
+	public void warning() {
+		Logger.warning("Process was killed irregularly!");
+	}
+
+	@Benchmark
+	public void debugSuppressed() {
+		Logger.debug("Timer runs out at 16:45 in 7 hours 59 minutes.");
+	}
+
+	@Benchmark
+	public void infoParameterized() {
+		Logger.info("Timer runs out at {} in {}.", ending, remaining);
+	}
+
+	@Benchmark
+	public void debugSuppressedParameterized() {
+		Logger.debug("Timer runs out at {} in {}.", ending, remaining);
+	}
+
+	@Benchmark
+	public void debugSuppressedPrimitive() {
+		Logger.debug("Exited Timer after {} wakeups.", wakeups);
+	}
+
+	@Benchmark
+	public void debugSuppressedSupplier() {
+		Logger.debug(() -> "Timer runs out at " + ending + " in " + remaining + ".");
+	}
+
+	/**
+	 * Writes every error in full, without collapsing repeats.
+	 */
+	@State(Scope.Benchmark)
+	public static class UncollapsedErrors {
+
+		@Setup(Level.Trial)
+		public void setup() {
+			Logger.setErrorFingerprints(new ErrorFingerprints(0, ErrorFingerprints.DEFAULT_KEY_FRAMES, ErrorFingerprints.DEFAULT_MAX_DEPTH,
+					ErrorFingerprints.DEFAULT_MAX_FINGERPRINTS));
+		}
+	}
+
+	@Benchmark
+	public void error(UncollapsedErrors errors) {
+		Logger.error(exception);
+	}
+
+	@Benchmark
+	public void errorRepeated() {
+		Logger.error(exception);
+	}
+}
@@ -0,0 +1,85 @@
+package clock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures rendering a verbose countdown frame with the {@link ConsoleRenderer} against the former
+ * {@code renderLineReplace} approach of rebuilding and encoding the whole line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+	private static final String LINE = "Timer runs out at 16:45 in 7 hours 59 minutes.";
+
+	private final StringBuilder frame = new StringBuilder(128);
+	private ConsoleRenderer renderer;
+	private int seconds;
+
+	@Setup
+	public void setup() {
+		renderer = new ConsoleRenderer(new DiscardingChannel());
+	}
+
+	@Benchmark
+	public boolean renderChanged() throws IOException {
+		seconds = seconds == 1 ? 60 : seconds - 1;
+		frame.setLength(0);
+		frame.append(LINE).append(" Sleeping for approx. ").append(seconds).append(" seconds.");
+		return renderer.render(frame);
+	}
+
+	@Benchmark
+	public boolean renderUnchanged() throws IOException {
+		frame.setLength(0);
+		frame.append(LINE);
+		return renderer.render(frame);
+	}
+
+	@Benchmark
+	public void renderLineReplace(Blackhole blackhole) {
+		seconds = seconds == 1 ? 60 : seconds - 1;
+		String line = LINE + " Sleeping for approx. " + seconds + " seconds.";
+		blackhole.consume(("\r" + " ".repeat(line.length()) + "\r" + line).getBytes());
+	}
+
+	/**
+	 * Channel that consumes every byte without writing it anywhere.
+	 */
+	static final class DiscardingChannel implements WritableByteChannel {
+		@Override
+		public int write(ByteBuffer src) {
+			int remaining = src.remaining();
+			src.position(src.limit());
+			return remaining;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
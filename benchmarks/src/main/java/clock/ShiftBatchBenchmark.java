@@ -0,0 +1,67 @@
+package clock;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a whole {@link ShiftBatch} run over a generated CSV file. The throughput in rows per second is
+ * {@code rows} divided by the time of a run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ShiftBatchBenchmark {
+
+	@Param({"10000000"})
+	public int rows;
+
+	private File input;
+	private File output;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		input = File.createTempFile("clock-shifts", ".csv");
+		output = File.createTempFile("clock-endings", ".csv");
+		SplittableRandom random = new SplittableRandom(42);
+		try(BufferedWriter writer = Files.newBufferedWriter(input.toPath(), StandardCharsets.US_ASCII)) {
+			writer.write("employee,start,break,overtime,freetime\n");
+			for(int i = 0; i < rows; i++) {
+				writer.write("E" + i + "," + random.nextInt(24) + ":" + (10 + random.nextInt(50)) + "," + random.nextInt(60) + ",0:"
+						+ (10 + random.nextInt(50)) + "," + random.nextInt(30) + "\n");
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(input.toPath());
+		Files.deleteIfExists(output.toPath());
+	}
+
+	@Benchmark
+	public ShiftBatch.Result run() throws IOException {
+		return new ShiftBatch(8).run(input, output);
+	}
+}
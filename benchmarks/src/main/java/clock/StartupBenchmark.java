@@ -0,0 +1,91 @@
+package clock;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time from launching the assembly jar of Clock until its first output for the help screen
+ * ({@code -h}), clearing the log ({@code -c}) and a timer run, each without and with the class-data-sharing
+ * archive that the build creates next to the jar. Every run uses its own empty home directory, so the log-file is
+ * created like on a first start and the user's log-files are never touched; the timer is stopped after its first
+ * output. Passing the jar of an older build compares the startup before and after a change.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar clock.StartupBenchmark [jar] [runs]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+	private static final String[][] COMMANDS = {{"-h"}, {"-c"}, {"-t", "08:00"}};
+
+	public static void main(String[] args) throws Exception {
+		File jar = new File(args.length > 0 ? args[0] : "target/Clock-1.0.0-jar-with-dependencies.jar");
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		File archive = new File(jar.getParentFile(), "Clock.jsa");
+		if(!jar.isFile()) {
+			throw new IllegalArgumentException("Jar " + jar + " does not exist, run \"mvn package\" first.");
+		}
+
+		System.out.println(String.format("%-12s %14s %14s", "command", "median ms", "with CDS ms"));
+		for(String[] command : COMMANDS) {
+			double plain = median(jar, null, command, runs);
+			String shared = archive.isFile() ? String.format("%.1f", median(jar, archive, command, runs)) : "no archive";
+			System.out.println(String.format("%-12s %14.1f %14s", String.join(" ", command), plain, shared));
+		}
+	}
+
+	private static double median(File jar, File archive, String[] command, int runs) throws Exception {
+		// the first launches warm up the file system cache
+		for(int i = 0; i < 2; i++) {
+			firstOutput(jar, archive, command);
+		}
+		double[] millis = new double[runs];
+		for(int i = 0; i < runs; i++) {
+			millis[i] = firstOutput(jar, archive, command) / 1e6;
+		}
+		Arrays.sort(millis);
+		return millis[runs / 2];
+	}
+
+	/**
+	 * @return nanoseconds from starting the process until it wrote its first byte
+	 */
+	private static long firstOutput(File jar, File archive, String[] command) throws Exception {
+		Path home = Files.createTempDirectory("clock-startup");
+		try {
+			List<String> line = new ArrayList<>();
+			line.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+			line.add("-Duser.home=" + home);
+			if(archive != null) {
+				line.add("-XX:SharedArchiveFile=" + archive.getPath());
+			}
+			line.add("-jar");
+			line.add(jar.getPath());
+			line.addAll(Arrays.asList(command));
+
+			long started = System.nanoTime();
+			Process process = new ProcessBuilder(line).redirectErrorStream(true).start();
+			long nanos;
+			try(InputStream out = process.getInputStream()) {
+				if(out.read() < 0) {
+					throw new IllegalStateException("Command " + String.join(" ", command) + " wrote nothing.");
+				}
+				nanos = System.nanoTime() - started;
+			}
+			process.destroy();
+			process.waitFor();
+			return nanos;
+		} finally {
+			try(Stream<Path> files = Files.walk(home)) {
+				files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package clock;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures polls of the {@link StatusService} by several clients over HTTP with keep-alive and over the Unix domain
+ * socket with a new connection per poll, and the republishing of the snapshot on a state change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusServiceBenchmark {
+
+	private static final byte[] REQUEST = "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+	private StatusService service;
+	private Path socketPath;
+	private HttpClient client;
+	private HttpRequest request;
+	private int minute = 0;
+
+	@Setup
+	public void setup() throws IOException {
+		socketPath = Files.createTempDirectory("clock-status").resolve("clock.sock");
+		service = new StatusService(0, socketPath, TimeSource.system());
+		service.start();
+		service.accept(new TimerState(600, 1005, Deadline.State.RUNNING, 0, -1));
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		request = HttpRequest.newBuilder(URI.create("http://localhost:" + service.getPort() + "/")).build();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		service.close();
+		Files.deleteIfExists(socketPath.getParent());
+	}
+
+	@Benchmark
+	@Threads(4)
+	public byte[] pollHttp() throws IOException, InterruptedException {
+		return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public int pollSocket() throws IOException {
+		try(SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+			channel.write(ByteBuffer.wrap(REQUEST));
+			ByteBuffer response = ByteBuffer.allocate(512);
+			while(channel.read(response) >= 0) {
+				// read until the service closes the connection
+			}
+			return response.position();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void republish() {
+		minute = (minute + 1) % 1000;
+		service.accept(new TimerState(minute, 1005, Deadline.State.RUNNING, 0, -1));
+	}
+}
@@ -0,0 +1,81 @@
+package clock;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures publishing a state of the timer to many subscribers of a {@link TickPublisher}, as seen by the
+ * timekeeping thread, while the subscribers consume the events on their own threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickPublisherBenchmark {
+
+	@Param({"1", "16", "256"})
+	public int subscribers;
+
+	private TickPublisher publisher;
+	private TimerState[] states;
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		publisher = new TickPublisher();
+		for(int i = 0; i < subscribers; i++) {
+			publisher.subscribe(new Flow.Subscriber<TimerEvent>() {
+				private Flow.Subscription subscription;
+
+				@Override
+				public void onSubscribe(Flow.Subscription subscription) {
+					this.subscription = subscription;
+					subscription.request(1);
+				}
+
+				@Override
+				public void onNext(TimerEvent event) {
+					subscription.request(1);
+				}
+
+				@Override
+				public void onError(Throwable throwable) {
+				}
+
+				@Override
+				public void onComplete() {
+				}
+			});
+		}
+		states = new TimerState[Minutes.PER_DAY];
+		for(int i = 0; i < states.length; i++) {
+			states[i] = new TimerState(i, Minutes.of(16, 45), i < Minutes.of(16, 45) ? Deadline.State.RUNNING : Deadline.State.OVERTIME, 0, -1);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		publisher.close();
+	}
+
+	@Benchmark
+	public void publish() {
+		publisher.publish(states[next]);
+		next = (next + 1) % states.length;
+	}
+}
@@ -0,0 +1,122 @@
+package clock;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import clock.Deadline.State;
+
+/**
+ * Checks the timekeeping across midnight, both daylight saving changes and wall-clock jumps. Every scenario runs a
+ * timer with 45 minutes of breaks through the {@link TimerLoop} on a {@link SimulatedTimeSource} in Europe/Berlin
+ * until two hours after its ending on the wall-clock and checks the local time the timer expired at, that its
+ * state never moves backwards, that the ending is reported once and the overtime at the end. The
+ * {@link TimerEngine} is checked to expire a deadline behind a daylight saving change on its tick. The check exits
+ * with status 1 if any scenario failed.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar clock.TimeJumpCheck
+ * </pre>
+ */
+public class TimeJumpCheck {
+
+	private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+	private static final long HOUR_MILLIS = 60 * WakeupScheduler.MILLIS_PER_MINUTE;
+
+	public static void main(String[] args) {
+		Logger.setLevel(Logger.Level.NONE);
+		int failures = 0;
+		failures += check("midnight", LocalDateTime.of(2024, 3, 4, 20, 0), 0, 0, LocalDateTime.of(2024, 3, 5, 4, 45), 119);
+		failures += check("DST forward", LocalDateTime.of(2024, 3, 30, 22, 0), 0, 0, LocalDateTime.of(2024, 3, 31, 6, 45), 119);
+		failures += check("DST backward", LocalDateTime.of(2024, 10, 26, 22, 0), 0, 0, LocalDateTime.of(2024, 10, 27, 6, 45), 119);
+		// the wall-clock jumps back to 16:00 at 17:00, after the ending at 16:45
+		failures += check("jump backward", LocalDateTime.of(2024, 3, 4, 8, 0), 9 * HOUR_MILLIS, -HOUR_MILLIS, LocalDateTime.of(2024, 3, 4, 16, 45), 119);
+		// the wall-clock jumps from 12:00 to 18:00 over the ending, like a resume from suspend
+		failures += check("jump forward", LocalDateTime.of(2024, 3, 4, 8, 0), 4 * HOUR_MILLIS, 6 * HOUR_MILLIS, LocalDateTime.of(2024, 3, 4, 18, 0), 194);
+		failures += checkEngine("engine DST forward", LocalDateTime.of(2024, 3, 30, 22, 0), LocalDateTime.of(2024, 3, 31, 6, 45));
+		failures += checkEngine("engine DST backward", LocalDateTime.of(2024, 10, 26, 22, 0), LocalDateTime.of(2024, 10, 27, 6, 45));
+
+		System.out.println(failures == 0 ? "Result: every scenario kept the time" : "Result: " + failures + " scenarios failed");
+		if(failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Runs a timer from {@code start} until two hours after its ending or the jump, whichever is later on the
+	 * wall-clock.
+	 *
+	 * @return 1 if the scenario failed, 0 otherwise
+	 */
+	private static int check(String name, LocalDateTime start, long jumpAfterMillis, long jumpByMillis, LocalDateTime expectedExpiry, long expectedOvertime) {
+		Deadline deadline = Deadline.of(start.toLocalTime(), 8, LocalTime.of(0, 45), LocalTime.MIDNIGHT, LocalTime.MIDNIGHT);
+		long startMillis = start.atZone(ZONE).toInstant().toEpochMilli();
+		SimulatedTimeSource source = new SimulatedTimeSource(Instant.ofEpochMilli(startMillis), ZONE);
+		if(jumpByMillis != 0) {
+			source.scheduleJump(startMillis + jumpAfterMillis, jumpByMillis);
+		}
+
+		List<String> errors = new ArrayList<>();
+		LocalDateTime[] expired = {null};
+		TimerState[] last = {null};
+		int[] endings = {0};
+		TimerLoop loop = new TimerLoop(deadline, start.toLocalDate(), source, state -> {
+			LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(source.millis()), ZONE);
+			if(expired[0] == null && state.getState() != State.RUNNING) {
+				expired[0] = now;
+			}
+			if(state.getState() == State.EXPIRED) {
+				endings[0]++;
+			}
+			if(last[0] != null && state.getState().ordinal() < last[0].getState().ordinal()) {
+				errors.add("moved back from " + last[0] + " to " + state + " at " + now);
+			}
+			last[0] = state;
+		}, WakeupScheduler.MILLIS_PER_MINUTE, false);
+		long endingMillis = deadline.endingOn(start.toLocalDate()).atZone(ZONE).toInstant().toEpochMilli();
+		loop.stopAt(Math.max(endingMillis, startMillis + jumpAfterMillis + jumpByMillis) + 2 * HOUR_MILLIS);
+		loop.run();
+
+		if(!expectedExpiry.equals(expired[0])) {
+			errors.add("expired at " + expired[0] + " instead of " + expectedExpiry);
+		}
+		if(endings[0] > 1) {
+			errors.add("reported the ending " + endings[0] + " times");
+		}
+		if(loop.getCurrentOvertime() != expectedOvertime) {
+			errors.add("ended with " + loop.getCurrentOvertime() + " instead of " + expectedOvertime + " minutes of overtime");
+		}
+		return report(name, errors);
+	}
+
+	/**
+	 * Schedules a timer from {@code start} in a {@link TimerEngine} and advances it to the tick before and at the
+	 * expected ending.
+	 *
+	 * @return 1 if the scenario failed, 0 otherwise
+	 */
+	private static int checkEngine(String name, LocalDateTime start, LocalDateTime expectedEnding) {
+		Deadline deadline = Deadline.of(start.toLocalTime(), 8, LocalTime.of(0, 45), LocalTime.MIDNIGHT, LocalTime.MIDNIGHT);
+		TimeSource source = TimeSource.of(java.time.Clock.fixed(start.atZone(ZONE).toInstant(), ZONE));
+		long endingMillis = expectedEnding.atZone(ZONE).toInstant().toEpochMilli();
+		List<String> errors = new ArrayList<>();
+		try(TimerEngine engine = new TimerEngine(TimerEngine.DEFAULT_TICK_MILLIS, 1, source)) {
+			engine.schedule(deadline, LocalDate.from(start), () -> { });
+			int early = engine.tick(endingMillis - TimerEngine.DEFAULT_TICK_MILLIS);
+			int due = engine.tick(endingMillis);
+			if(early != 0 || due != 1) {
+				errors.add("expired " + early + " timers a tick before and " + due + " at " + expectedEnding);
+			}
+		}
+		return report(name, errors);
+	}
+
+	private static int report(String name, List<String> errors) {
+		System.out.println(String.format("%-20s %s", name, errors.isEmpty() ? "ok" : String.join("; ", errors)));
+		return errors.isEmpty() ? 0 : 1;
+	}
+}
@@ -0,0 +1,59 @@
+package clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing the {@link TimerCheckpoint} on a state change of the timer and reading it on resume.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerCheckpointBenchmark {
+
+	private File file;
+	private TimerCheckpoint checkpoint;
+	private long overtime = 0;
+
+	@Setup
+	public void setup() throws IOException {
+		file = File.createTempFile("clock", ".checkpoint");
+		checkpoint = new TimerCheckpoint(file);
+		checkpoint.start(LocalDate.now(), LocalTime.of(8, 0), LocalTime.of(0, 45), LocalTime.of(0, 20), LocalTime.of(0, 0), false, 0, System.currentTimeMillis());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		checkpoint.close();
+		Files.deleteIfExists(file.toPath());
+	}
+
+	@Benchmark
+	public void update() {
+		checkpoint.update(Deadline.State.OVERTIME, overtime++, overtime);
+	}
+
+	@Benchmark
+	public TimerCheckpoint.Snapshot read() {
+		return checkpoint.read();
+	}
+}
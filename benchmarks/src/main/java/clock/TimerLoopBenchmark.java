@@ -0,0 +1,65 @@
+package clock;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs a whole 8-hour timer with breaks and two hours of overtime through the {@link TimerLoop} on a
+ * {@link SimulatedTimeSource}, once without and once with a wall-clock jump backwards over the ending.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerLoopBenchmark {
+
+	private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+	private static final LocalDate DATE = LocalDate.of(2024, 3, 4);
+
+	@Param({"false", "true"})
+	public boolean verbose;
+
+	@Param({"0", "-3600000"})
+	public long jumpMillis;
+
+	private Deadline deadline;
+	private Instant start;
+
+	@Setup
+	public void setup() {
+		Logger.setLevel(Logger.Level.NONE);
+		deadline = Deadline.of(LocalTime.of(8, 0), 8, LocalTime.of(0, 45), LocalTime.of(0, 0), LocalTime.of(0, 0));
+		start = LocalDateTime.of(DATE, LocalTime.of(8, 0)).atZone(ZONE).toInstant();
+	}
+
+	@Benchmark
+	public long session(Blackhole blackhole) {
+		SimulatedTimeSource source = new SimulatedTimeSource(start, ZONE);
+		if(jumpMillis != 0) {
+			source.scheduleJump(start.toEpochMilli() + 9 * WakeupScheduler.MILLIS_PER_MINUTE * 60, jumpMillis);
+		}
+		TimerLoop loop = new TimerLoop(deadline, DATE, source, blackhole::consume, WakeupScheduler.MILLIS_PER_MINUTE, verbose);
+		loop.stopAt(start.toEpochMilli() + 10 * WakeupScheduler.MILLIS_PER_MINUTE * 60 + 45 * WakeupScheduler.MILLIS_PER_MINUTE);
+		loop.run();
+		return loop.getCurrentOvertime();
+	}
+}
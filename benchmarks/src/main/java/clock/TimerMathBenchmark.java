@@ -0,0 +1,80 @@
+package clock;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-tick timer math: calculating the ending ({@code Clock.calculateTimer}) and formatting the
+ * remaining time ({@link Clock#formatTimeDifference(LocalTime, LocalTime)}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerMathBenchmark {
+
+	@Param({"08:00", "23:30"})
+	public String start;
+
+	private LocalTime time;
+	private LocalTime now;
+	private LocalTime breaktime;
+	private LocalTime overtime;
+	private LocalTime freetime;
+	private LocalTime ending;
+	private int packedTime;
+	private int packedNow;
+	private int packedEnding;
+
+	@Setup
+	public void setup() {
+		time = LocalTime.parse(start);
+		now = time.plusMinutes(137);
+		breaktime = LocalTime.of(0, 45);
+		overtime = LocalTime.of(0, 20);
+		freetime = LocalTime.of(0, 0);
+		ending = Deadline.of(time, 8, breaktime, overtime, freetime).getEnding();
+		packedTime = Minutes.of(time);
+		packedNow = Minutes.of(now);
+		packedEnding = Minutes.of(ending);
+	}
+
+	@Benchmark
+	public Deadline calculateTimer() {
+		return Deadline.of(time, 8, breaktime, overtime, freetime);
+	}
+
+	@Benchmark
+	public int calculateTimerPacked() {
+		return Deadline.endingOf(packedTime, 8, 45, 20, 0);
+	}
+
+	@Benchmark
+	public int timeDifferencePacked() {
+		return Minutes.until(packedNow, packedEnding);
+	}
+
+	@Benchmark
+	public String formatTimeDifference() {
+		return Clock.formatTimeDifference(now, ending);
+	}
+
+	@Benchmark
+	public String formatTimeDifferencePacked() {
+		return Clock.formatTimeDifference(packedNow, packedEnding);
+	}
+}
@@ -0,0 +1,59 @@
+package clock;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how the cost of a single one-second tick of the {@link TimingWheel} scales with the number of active
+ * timers. Timers are spread over an 8-hour window and every expired timer is rescheduled, so the number of
+ * active timers stays constant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingWheelBenchmark {
+
+	private static final int WINDOW = 8 * 60 * 60;
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int timers;
+
+	private final SplittableRandom random = new SplittableRandom(42);
+	private TimingWheel wheel;
+	private long tick;
+
+	@Setup
+	public void setup() {
+		wheel = new TimingWheel(0);
+		tick = 0;
+		for(int i = 0; i < timers; i++) {
+			wheel.schedule(1 + random.nextInt(WINDOW), null);
+		}
+	}
+
+	@Benchmark
+	public int tick() {
+		long current = ++tick;
+		return wheel.advance(current, timeout -> wheel.schedule(current + 1 + random.nextInt(WINDOW), null));
+	}
+
+	@Benchmark
+	public boolean scheduleAndCancel() {
+		return wheel.cancel(wheel.schedule(tick + 1 + random.nextInt(WINDOW), null));
+	}
+}
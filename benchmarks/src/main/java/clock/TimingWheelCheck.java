@@ -0,0 +1,70 @@
+package clock;
+
+import java.util.SplittableRandom;
+
+/**
+ * Checks that every timeout of a {@link TimingWheel} expires exactly at its deadline tick: random deadlines over
+ * all levels plus every deadline on a boundary of the upper levels ({@code 64 * n}, {@code 4096 * n}, ...), which
+ * cascade down on the tick they are due. The wheel is advanced one tick at a time and in larger steps; the check
+ * exits with status 1 if any timeout expired early, late or not at all.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar clock.TimingWheelCheck [random deadlines]
+ * </pre>
+ */
+public class TimingWheelCheck {
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		long failures = 0;
+		for(long start : new long[] {0, 17, TimingWheel.WHEEL_SIZE - 1, 123_456_789}) {
+			failures += run(start, count, 1);
+			failures += run(start, count, 37);
+		}
+		System.out.println(failures == 0 ? "Result: every timeout expired on its deadline" : "Result: " + failures + " timeouts expired on the wrong tick");
+		if(failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @return number of timeouts that did not expire on their deadline
+	 */
+	private static long run(long start, int count, int step) {
+		TimingWheel wheel = new TimingWheel(start);
+		SplittableRandom random = new SplittableRandom(start ^ step);
+		long last = start;
+		int scheduled = 0;
+		for(int i = 0; i < count; i++) {
+			long deadline = start + 1 + random.nextLong(1L << 20);
+			wheel.schedule(deadline, null);
+			last = Math.max(last, deadline);
+			scheduled++;
+		}
+		for(long boundary = TimingWheel.WHEEL_SIZE; boundary <= (1L << 20); boundary += TimingWheel.WHEEL_SIZE) {
+			long deadline = (start / TimingWheel.WHEEL_SIZE) * TimingWheel.WHEEL_SIZE + boundary;
+			wheel.schedule(deadline, null);
+			last = Math.max(last, deadline);
+			scheduled++;
+		}
+
+		long[] wrong = {0};
+		long[] expired = {0};
+		for(long tick = start; tick < last; ) {
+			long to = Math.min(last, tick + step);
+			long from = tick;
+			wheel.advance(to, timeout -> {
+				expired[0]++;
+				// with steps larger than one tick a timeout expires somewhere in the processed range
+				if(step == 1 ? timeout.getDeadlineTick() != to : timeout.getDeadlineTick() <= from || timeout.getDeadlineTick() > to) {
+					wrong[0]++;
+				}
+			});
+			tick = to;
+		}
+		long failures = wrong[0] + (scheduled - expired[0]);
+		System.out.println("start=" + start + " step=" + step + ": " + scheduled + " timeouts, " + wrong[0] + " on the wrong tick, "
+				+ (scheduled - expired[0]) + " never expired");
+		return failures;
+	}
+}
@@ -0,0 +1,183 @@
+package clock;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import clock.Logger.Level;
+import clock.Logger.OverflowPolicy;
+
+/**
+ * <p>Bounded ring buffer that decouples log callers from the file I/O of the {@link Logger}. Callers only store
+ * a record into one of the preallocated slots, a dedicated writer thread formats and writes the records.</p>
+ *
+ * <p>Slots are handed to the writer thread in batches. The writer owns the slots between {@code head} and
+ * {@code head + count} until it has written them, so producers never touch a slot that is currently written.</p>
+ */
+class AsyncLogWriter implements Runnable {
+
+	private final int capacity;
+	private final long[] timestamps;
+	private final Level[] levels;
+	private final String[] messages;
+	private final OverflowPolicy policy;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+
+	private final Thread thread;
+
+	// guarded by lock
+	private int head = 0;
+	private int count = 0;
+	private long dropped = 0;
+	private long totalDropped = 0;
+	private boolean closed = false;
+
+	AsyncLogWriter(int capacity, OverflowPolicy policy) {
+		if(capacity < 1) {
+			throw new IllegalArgumentException("Capacity of the log buffer has to be positive but is " + capacity + ".");
+		}
+		this.capacity = capacity;
+		this.timestamps = new long[capacity];
+		this.levels = new Level[capacity];
+		this.messages = new String[capacity];
+		this.policy = policy;
+
+		this.thread = new Thread(this, "Logger-Thread");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Puts a record into the ring buffer. If the buffer is full the behaviour depends on the {@link OverflowPolicy}.
+	 *
+	 * @param timestamp - creation time of the record in milliseconds since epoch
+	 * @param level - level of the record
+	 * @param message - message of the record
+	 * @return {@code true} if the record was handled (buffered or dropped); {@code false} if the caller has to write it synchronously
+	 */
+	boolean offer(long timestamp, Level level, String message) {
+		lock.lock();
+		try {
+			while(count == capacity && !closed) {
+				switch(policy) {
+					case BLOCK: {
+						notFull.awaitUninterruptibly();
+					} break;
+					case DROP: {
+						dropped++;
+						totalDropped++;
+						return true;
+					}
+					default:
+						return false;
+				}
+			}
+			if(closed) {
+				return false;
+			}
+
+			int index = (head + count) % capacity;
+			timestamps[index] = timestamp;
+			levels[index] = level;
+			messages[index] = message;
+			count++;
+			notEmpty.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void run() {
+		while(true) {
+			int start;
+			int batch;
+			long droppedSinceLastBatch;
+
+			lock.lock();
+			try {
+				while(count == 0 && !closed) {
+					notEmpty.awaitUninterruptibly();
+				}
+				// entries dropped after the last batch are still reported when closing with an empty buffer
+				if(count == 0 && dropped == 0) {
+					return;
+				}
+				start = head;
+				batch = count;
+				droppedSinceLastBatch = dropped;
+				dropped = 0;
+			} finally {
+				lock.unlock();
+			}
+
+			Level highest = Level.DEBUG;
+			for(int i = 0; i < batch; i++) {
+				int index = (start + i) % capacity;
+				Logger.writeEntry(timestamps[index], levels[index], messages[index]);
+				if(levels[index].ordinal() > highest.ordinal()) {
+					highest = levels[index];
+				}
+				messages[index] = null;
+			}
+			if(droppedSinceLastBatch > 0) {
+				ClockMonitor.get().logDropped(droppedSinceLastBatch);
+				Logger.writeEntry(System.currentTimeMillis(), Level.WARNING, "Log buffer overflowed, dropped " + droppedSinceLastBatch + " entries.");
+				if(highest.ordinal() < Level.WARNING.ordinal()) {
+					highest = Level.WARNING;
+				}
+			}
+			Logger.commit(highest);
+
+			lock.lock();
+			try {
+				head = (start + batch) % capacity;
+				count -= batch;
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting new records and waits until the writer thread has written every buffered record.
+	 */
+	void close() {
+		lock.lock();
+		try {
+			closed = true;
+			notEmpty.signalAll();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+
+		boolean interrupted = false;
+		while(thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return number of records dropped because of a full buffer since the creation of this writer
+	 */
+	long getDropped() {
+		lock.lock();
+		try {
+			return totalDropped;
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -4,15 +4,26 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.management.JMException;
 
 import clock.Logger.Level;
+import clock.Logger.OverflowPolicy;
 
 /**
  * <p>This class is the main class for configuration, management of resources and starting the timer specified by console input.</p>
@@ -24,9 +35,15 @@ public class Clock {
 	
 	// default values
 	private final int DEFAULT_TIMER = 8;
-	private final int UPDATE_INTERVAL = 10000;
+	private final long UPDATE_RESOLUTION = WakeupScheduler.MILLIS_PER_MINUTE;
+	private final int LOG_BUFFER_CAPACITY = 1024;
+	private final long LOG_SEGMENT_SIZE = 1024 * 1024;
+	private final int LOG_SEGMENT_COUNT = 8;
+	private final int STATUS_PORT = 7878;
+	private final String STATUS_SOCKET_NAME = "clock.sock";
 	private final Path DIRECTORY_PATH = Path.of(System.getProperty("user.home") + "/Documents/Clock"); //TODO make it platform independent
-	private final String LOGFILE_NAME = "clock_" + LocalDate.now().getYear() +  ".log";
+	private final String LOGFILE_PATTERN = "clock_(\\d{4})\\.log";
+	private final String ARCHIVE_PATTERN = "clock_(\\d{4})\\" + LogArchive.EXTENSION;
 	private final String STRING_LINE_SEPERATOR = System.lineSeparator();
 	
 	// configuration
@@ -36,9 +53,20 @@ public class Clock {
 	private boolean end = false;
 	private boolean log = true;
 	private boolean clear = false;
+	private OverflowPolicy asyncLog = null;
+	private boolean rolling = false;
+	private boolean rebuildLedger = false;
+	private LocalDate[] sessionRange = null;
+	private boolean verifyLog = false;
+	private File batchInput = null;
+	private File batchOutput = null;
+	private LogQuery query = null;
+	private boolean archive = false;
+	private boolean resume = false;
+	private int daemonPort = -1;
 	
 	// input parameters
-	private LocalTime time = LocalTime.now().truncatedTo(ChronoUnit.MINUTES);
+	private LocalTime time = null; // the current time if not defined, read when the timer starts
 	//TODO use durations for this
 	private LocalTime breaktime = LocalTime.of(0, 45);
 	private LocalTime overtime = LocalTime.of(0, 0);
@@ -47,6 +75,11 @@ public class Clock {
 	// utility values
 	private boolean nextDay = false;
 	private long currentOvertime = 0;
+	private OvertimeLedger ledger = null;
+	private TimerCheckpoint checkpoint = null;
+	private StatusService status = null;
+	private LocalDate startDate = null;
+	private final TimeSource timeSource = TimeSource.system();
 	
 	//TODO make timer-interval configurable (currently only 8h; max 24h)
 	//TODO make regular shutdown available (key-comb, eg. q + enter)
@@ -55,13 +88,8 @@ public class Clock {
 	//TODO outsource config to it's own object (singleton)?
 	//TODO sound
 	//TODO end
-	//TODO multi-threading -> for I/O
-	//TODO automatically calculate overtime at program exit -> put into logs
-	//TODO read accumulated overtime from logs and inform user on program start -> ask if and how much of it should be applied to timer
+	//TODO ask if and how much of the accumulated overtime should be applied to timer
 	//TODO argument for log level
-	//TODO warning for max log-size (with overwrite option? -> old entries overwritten?)
-	//TODO log-entries for timer reached milestones (every hour or so)
-	//TODO smartflush -> don't flush on every writeEntry instead at certain intervals (like time or events)
 	
 	public static void main(String[] args) throws IOException {
 		
@@ -75,6 +103,7 @@ public class Clock {
 		
 		// exit prematurely if any problems arise
 		if(clock.applyConfiguration()) {
+			Logger.close();
 			return;
 		}
 		
@@ -138,6 +167,32 @@ public class Clock {
 						log = false;
 						Logger.setLevel(Level.NONE);
 					} break;
+					case "-a","--async": {
+						if(i+1 < args.length) {
+							asyncLog = parseOverflowPolicy(args[++i]);
+							if(asyncLog == null) {
+								System.out.println("Invalid policy parameter \"" + args[i] + "\" after argument \"" + arg + "\". Stopping process." + STRING_LINE_SEPERATOR
+										+ "Valid parameters for the arguments are referenced in the following help screen:" + STRING_LINE_SEPERATOR);
+								printHelp(true);
+								help = true;
+								return;
+							}
+						} else {
+							System.out.println("No policy found after the argument!" + STRING_LINE_SEPERATOR + " Usage: -a|--async <policy>");
+						}
+					} break;
+					case "-R","--resume": {
+						resume = true;
+					} break;
+					case "-d","--daemon": {
+						daemonPort = STATUS_PORT;
+						if(i+1 < args.length && args[i+1].matches("\\d{1,5}")) {
+							daemonPort = Integer.parseInt(args[++i]);
+						}
+					} break;
+					case "-r","--rolling": {
+						rolling = true;
+					} break;
 					case "-v","--verbose": {
 						verbose = true;
 					} break;
@@ -148,6 +203,42 @@ public class Clock {
 						clear = true;
 						return;
 					} 
+					case "-V","--verifylog": {
+						verifyLog = true;
+						return;
+					}
+					case "-B","--batch": {
+						if(i+2 < args.length) {
+							batchInput = new File(args[++i]);
+							batchOutput = new File(args[++i]);
+						} else {
+							System.out.println("No files found after the argument!" + STRING_LINE_SEPERATOR + " Usage: -B|--batch <input> <output>");
+							help = true;
+						}
+						return;
+					}
+					case "-Q","--query": {
+						query = parseQuery(args, i + 1);
+						if(query == null) {
+							help = true;
+						}
+						return;
+					}
+					case "-A","--archive": {
+						archive = true;
+						return;
+					}
+					case "-L","--rebuildledger": {
+						rebuildLedger = true;
+						return;
+					}
+					case "-S","--sessions": {
+						sessionRange = parseSessionRange(args, i + 1);
+						if(sessionRange == null) {
+							help = true;
+						}
+						return;
+					}
 					default:
 						System.out.println("Could not parse argument \"" + arg + "\". Stopping process." + STRING_LINE_SEPERATOR
 								+ "Valid arguments can be referenced in the following help screen:" + STRING_LINE_SEPERATOR);
@@ -165,6 +256,78 @@ public class Clock {
 		}
 	}
 	
+	/**
+	 * Parses the filters of a log query from {@code args} starting at {@code from} and notifies the user through
+	 * {@code System.out} about invalid filters.
+	 * 
+	 * @param args - argument array to be parsed
+	 * @param from - index of the first filter argument
+	 * @return the query; {@code null} if a filter was invalid
+	 */
+	private LogQuery parseQuery(String[] args, int from) {
+		LocalDate first = null;
+		LocalDate last = null;
+		Level level = null;
+		String text = null;
+		for(int i = from; i < args.length; i++) {
+			String arg = args[i];
+			if(i+1 >= args.length) {
+				System.out.println("No value found after the query filter \"" + arg + "\"!" + STRING_LINE_SEPERATOR
+						+ " Usage: -Q|--query [--from <date>] [--to <date>] [--level <level>] [--contains <text>]");
+				return null;
+			}
+			try {
+				switch(arg) {
+					case "--from": first = LocalDate.parse(args[++i]); break;
+					case "--to": last = LocalDate.parse(args[++i]); break;
+					case "--level": level = Level.valueOf(args[++i].toUpperCase()); break;
+					case "--contains": text = args[++i]; break;
+					default:
+						System.out.println("Could not parse query filter \"" + arg + "\"!" + STRING_LINE_SEPERATOR
+								+ " Usage: -Q|--query [--from <date>] [--to <date>] [--level <level>] [--contains <text>]");
+						return null;
+				}
+			} catch(DateTimeParseException | IllegalArgumentException e) {
+				System.out.println("Invalid query parameter \"" + args[i] + "\" after filter \"" + arg + "\"! Dates have the form \"yyyy-MM-dd\","
+						+ " levels are DEBUG, INFO, WARNING or ERROR.");
+				return null;
+			}
+		}
+		try {
+			return new LogQuery(first, last, level, text);
+		} catch(IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * Parses the date range of the listed sessions from {@code args} starting at {@code from} and notifies the user
+	 * through {@code System.out} about invalid filters.
+	 * 
+	 * @param args - argument array to be parsed
+	 * @param from - index of the first filter argument
+	 * @return first and last date of the range; {@code null} if a filter was invalid
+	 */
+	private LocalDate[] parseSessionRange(String[] args, int from) {
+		LocalDate[] range = {LocalDate.MIN, LocalDate.MAX};
+		for(int i = from; i < args.length; i++) {
+			String arg = args[i];
+			if(i+1 >= args.length || !(arg.equals("--from") || arg.equals("--to"))) {
+				System.out.println("Could not parse session filter \"" + arg + "\"!" + STRING_LINE_SEPERATOR
+						+ " Usage: -S|--sessions [--from <date>] [--to <date>]");
+				return null;
+			}
+			try {
+				range[arg.equals("--from") ? 0 : 1] = LocalDate.parse(args[++i]);
+			} catch(DateTimeParseException e) {
+				System.out.println("Invalid date \"" + args[i] + "\" after filter \"" + arg + "\"! Dates have the form \"yyyy-MM-dd\".");
+				return null;
+			}
+		}
+		return range;
+	}
+	
 	/**
 	 * Applies the current configuration parameters to the clock (like creating a logger/log-file for {@code log=true}). 
 	 * Returns a boolean to signal if the program should quit prematurely.
@@ -173,34 +336,110 @@ public class Clock {
 	 * @throws IOException if console-reading failed
 	 */
 	private boolean applyConfiguration() throws IOException {
+		if(help) {
+			// the help text was printed already, nothing needs the log-file
+			return true;
+		}
+		
 		if(log) {
+			initiateLogger();
+		}
+		
+		if(clear) {
 			try {
-				if(createLogfileAndInitiateLogger()) {
+				clearlog();
+			} catch(IOException e) {
+				System.out.println("Got an exception while clearing log: " + e.getMessage());
+			}	
+			return true;
+		}
+		
+		if(rebuildLedger) {
+			try {
+				rebuildLedger();
+			} catch(IOException e) {
+				System.out.println("Got an exception while rebuilding the overtime ledger: " + e.getMessage());
+			}
+			return true;
+		}
+		
+		if(sessionRange != null) {
+			try {
+				listSessions();
+			} catch(IOException e) {
+				System.out.println("Got an exception while reading the overtime ledger: " + e.getMessage());
+			}
+			return true;
+		}
+		
+		if(verifyLog) {
+			try {
+				verifyLog();
+			} catch(IOException e) {
+				System.out.println("Got an exception while verifying the log: " + e.getMessage());
+			}
+			return true;
+		}
+		
+		if(query != null) {
+			try {
+				queryLog();
+			} catch(IOException e) {
+				System.out.println("Got an exception while querying the log: " + e.getMessage());
+			}
+			return true;
+		}
+		
+		if(archive) {
+			try {
+				int archived = archivePastLogs();
+				System.out.println(archived == 0 ? "No logfiles of past years available to be archived." : "Archived " + archived + (archived == 1 ? " logfile." : " logfiles."));
+			} catch(IOException e) {
+				System.out.println("Got an exception while archiving the log: " + e.getMessage());
+			}
+			return true;
+		}
+		
+		if(batchInput != null) {
+			try {
+				runBatch();
+			} catch(IOException e) {
+				Logger.error(e);
+				System.out.println("Got an exception while running the batch: " + e.getMessage());
+			}
+			return true;
+		}
+		
+		if(log) {
+			try {
+				if(openLogfile()) {
 					System.out.println("Created new logging file at " + DIRECTORY_PATH + STRING_LINE_SEPERATOR);
 				}
+				Logger.enableSmartflush();
+				if(asyncLog != null) {
+					Logger.enableAsync(LOG_BUFFER_CAPACITY, asyncLog);
+				}
 			} catch(IOException e) {
 				System.out.println("Got an exception while initiating logging: " + e.getMessage() + STRING_LINE_SEPERATOR +
 						"Should the programm continue without logging? (y/n)");
 				BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
 				if(!mapStringBoolean(reader.readLine())) {
 					return true;
-				} 
+				}
+				log = false;
+				Logger.setLevel(Level.NONE);
 			}
 		}
 		
-		if(help) {
-			Logger.info("Printing help text and exit process.");
-			return true;
+		if(log) {
+			openLedger();
+			startArchival();
 		}
 		
-		if(clear) {
-			try {
-				clearlog();
-			} catch(IOException e) {
-				System.out.println("Got an exception while clearing log: " + e.getMessage());
-			}	
-			return true;
+		if(time == null) {
+			time = timeSource.now().truncatedTo(ChronoUnit.MINUTES);
 		}
+		openCheckpoint();
 		
 		if(verbose) {
 			Logger.info("Setting console output to verbose.");
@@ -212,121 +451,435 @@ public class Clock {
 	}
 	
 	/**
-	 * Starts the timer with console-output for the current clock-configuration.
+	 * Starts the timer with console-output for the current clock-configuration. This thread only keeps the time;
+	 * the console and the log are subscribers of a {@link TickPublisher} on their own threads that receive the latest state.
 	 */
 	private void startTimer() {
 
-		String currentLine = "";
-		int currentLength = 0;
-		String appendix = "";
-		int currentAppendixLength = 0;
-		LocalTime ending = calculateTimer();
+		Deadline deadline = calculateTimer();
+		LocalTime ending = deadline.getEnding();
 
-		if (ending.isBefore(time)) {
+		if (deadline.isNextDay()) {
 			Logger.info("Ending time is at the next day.");
 			nextDay = true;
 		}
 
-		Logger.info("Started Timer for " + toString() + ".");
-		Logger.info("Timer runs out at " + ending + " in " + formatTimeDifference(LocalTime.now(), ending) + ".");
+		Logger.info("Started Timer for {}.", this);
+		Logger.info(() -> "Timer runs out at " + ending + " in " + formatTimeDifference(timeSource.now(), ending) + ".");
+		
+		if(startDate == null) {
+			startDate = timeSource.today();
+		}
+		if(checkpoint != null) {
+			checkpoint.start(startDate, time, breaktime, overtime, freetime, nextDay, currentOvertime, timeSource.millis());
+		}
+		TimerEngine engine = new TimerEngine(TimerEngine.DEFAULT_TICK_MILLIS, 1, timeSource);
+		engine.schedule(deadline, startDate, () -> Logger.info("Timer ran out at {}.", ending));
+		try {
+			ClockMonitor.register();
+		} catch (JMException e) {
+			Logger.error(e);
+		}
+		
+		TickPublisher events = new TickPublisher();
+		status = daemonPort >= 0 ? startStatusService() : null;
+		if(status != null) {
+			events.subscribe(new SinkSubscriber(status), "Status-Sink");
+		} else {
+			events.subscribe(new SinkSubscriber(new ConsoleSink(verbose)), "Console-Sink");
+		}
+		if (log) {
+			events.subscribe(new SinkSubscriber(new LogSink()), "Log-Sink");
+		}
+
+		StateSink target = events::publish;
+		if(checkpoint != null) {
+			target = state -> {
+				checkpoint.update(state.getState(), state.getCurrentOvertime(), timeSource.millis());
+				events.publish(state);
+			};
+		}
+		TimerLoop loop = new TimerLoop(deadline, startDate, timeSource, target, UPDATE_RESOLUTION, verbose);
+		loop.run();
+		currentOvertime = loop.getCurrentOvertime();
+		nextDay = loop.isNextDay();
 
-		// TODO there are better solutions for overwriting the old line
-		while (!end) {
+		// TODO add currentOvertime to sumOvertime
+		events.close();
+		engine.close();
+		if(status != null) {
 			try {
-				LocalTime now = LocalTime.now();
-				int compareValue = now.truncatedTo(ChronoUnit.MINUTES).compareTo(ending);
-
-				//TODO extract currentLine + currentLength into object -> LengthHistorianString
-				if (compareValue < 0 || nextDay) {
-					currentLine = "Timer runs out at " + ending + " in " + formatTimeDifference(now, ending) + ".";
-					currentLength = currentLine.length();
-				} else if (compareValue > 0) {
-					currentLine = "Timer already ran out at " + ending + ", " + formatTimeDifference(ending, now)
-							+ " ago.";
-					currentLength = currentLine.length();
-					currentOvertime = ending.until(now, ChronoUnit.MINUTES);
-				} else {
-					currentLine = "Timer is over right now!";
-					currentLength = currentLine.length();
-					nextDay = false;
-				}
-				
-				try {
-					if (verbose) {
-						for (int i = 0; i < UPDATE_INTERVAL / 1000; i++) {
-							currentAppendixLength = appendix.length();
-							appendix = " Sleeping for approx. " + (UPDATE_INTERVAL / 1000 - i) + " seconds.";
-																					
-							System.out.write(renderLineReplace(currentLength + currentAppendixLength, currentLine + appendix).getBytes());
-							Thread.sleep(1000);
-						}
-					} else {			
-						System.out.write(renderLineReplace(currentLength, currentLine).getBytes());
-						Thread.sleep(UPDATE_INTERVAL);
-					}
-				} catch (InterruptedException e) {
-					Logger.error(e);
-					if (verbose) {
-						System.out.println("Thread was interrupted while sleeping!");
-					}
-				}
-			} catch (IOException e) {
+				status.close();
+			} catch(IOException e) {
 				Logger.error(e);
-				if (verbose) {
-					System.out.println("Recieved IOException while writing bytes to output!");
-				}
 			}
 		}
-
-		// TODO add currentOvertime to sumOvertime
-		Logger.info("Exited Timer.");
+		WakeupScheduler scheduler = loop.getScheduler();
+		Logger.info("Exited Timer after {} wakeups ({} per hour), {} wall-clock jumps.", scheduler.getWakeups(), Math.round(scheduler.getWakeupsPerHour()), scheduler.getJumps());
 	}
 	
 	// Utility functions
 	
 	/**
-	 * Renders a string that is used to replace a not-ended line with length {@code oldLength} with {@code newLine}.
+	 * Truncates the log-file to zero bytes and zero-fills the log segments of the rolling mode in place.
+	 * 
+	 * @return true if process finished successfully; false if any problems arise
+	 * @throws IOException if any IOExceptions occur with the file
+	 */
+	private boolean clearlog() throws IOException {
+		File logfile = logfile();
+		Logger.close();
+		
+		boolean cleared = false;
+		for(File file : logFiles(logfile)) {
+			if(file.exists()) {
+				System.out.print("Clearing logfile at \"" + file.getAbsolutePath() + "\"... ");
+				if(file.equals(logfile)) {
+					try(FileChannel truncating = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+						truncating.truncate(0);
+					}
+				} else {
+					// another running Clock may still have the segment mapped
+					MappedRollingLog.clear(file);
+				}
+				System.out.println("Successful!");
+				cleared = true;
+			}
+		}
+		
+		if(!cleared) {
+			System.out.println("No logfile named \"" + logfile.getName() + "\" available to be cleared.");
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Recreates the overtime ledger from the session entries of the log-file and its segments.
 	 * 
-	 * @param oldLength Length of the line to be replaced.
-	 * @param newLine String to replace the old line.
+	 * @throws IOException if any IOExceptions occur with the files
+	 */
+	private void rebuildLedger() throws IOException {
+		File logfile = logfile();
+		File ledgerFile = OvertimeLedger.ledgerFile(logfile);
+		Logger.close();
+		
+		System.out.print("Rebuilding overtime ledger at \"" + ledgerFile.getAbsolutePath() + "\"... ");
+		int sessions = OvertimeLedger.rebuild(ledgerFile, logFiles(logfile));
+		System.out.println("Successful! Found " + sessions + (sessions == 1 ? " session." : " sessions."));
+	}
+	
+	/**
+	 * Prints the sessions of the overtime ledger in the requested date range and their overtime.
 	 * 
-	 * @return {@code String} to replace the old line using carriage returns and spaces.
+	 * @throws IOException if any IOExceptions occur with the ledger
 	 */
-	private String renderLineReplace(int oldLength, String newLine) {
-		return "\r" + " ".repeat(oldLength) + "\r" + newLine;
+	private void listSessions() throws IOException {
+		File ledgerFile = OvertimeLedger.ledgerFile(logfile());
+		Logger.close();
+		if(!ledgerFile.exists()) {
+			System.out.println("No overtime ledger available at \"" + ledgerFile.getAbsolutePath() + "\".");
+			return;
+		}
+		
+		try(OvertimeLedger sessions = new OvertimeLedger(ledgerFile)) {
+			List<OvertimeLedger.Entry> entries = sessions.range(sessionRange[0], sessionRange[1]);
+			for(OvertimeLedger.Entry entry : entries) {
+				System.out.println(entry.getDate() + " from " + entry.getStart() + " to " + entry.getEnd() + " with " + entry.getBreaktime()
+						+ " break, overtime " + formatOvertime(entry.getOvertime()) + ".");
+			}
+			System.out.println(entries.size() + (entries.size() == 1 ? " session" : " sessions") + " with overtime of "
+					+ formatOvertime(sessions.overtimeBetween(sessionRange[0], sessionRange[1])) + ".");
+		}
 	}
 	
 	/**
-	 * Deletes old log-file and creates an empty new one.
+	 * Checks the integrity of the entries of the log-file and its segments and prints the result for every file.
 	 * 
-	 * @return true if process finished successfully; false if any problems arise
-	 * @throws IOException if any IOExceptions occur with the file
+	 * @throws IOException if any IOExceptions occur with the files
 	 */
-	private boolean clearlog() throws IOException {
-		File logfile = new File(DIRECTORY_PATH.toString() + "/" + LOGFILE_NAME);
+	private void verifyLog() throws IOException {
+		File logfile = logfile();
 		Logger.close();
-		System.out.print("Deleting logfile at \"" + logfile.getAbsolutePath() + "\"... ");
-
-		if(!logfile.exists()) {
-			System.out.println("No logfile named \"" + logfile.getName() + "\" available to be deleted.");
+		
+		LogVerifier verifier = new LogVerifier();
+		boolean found = false;
+		for(File file : logFiles(logfile)) {
+			if(file.exists()) {
+				found = true;
+				System.out.print("Verifying logfile at \"" + file.getAbsolutePath() + "\"... ");
+				LogVerifier.Report report = verifier.verify(file);
+				if(report.isIntact()) {
+					System.out.println("Intact! Checked " + report.getEntries() + (report.getEntries() == 1 ? " entry." : " entries."));
+				} else {
+					System.out.println("Found " + report.getCorrupt() + " corrupt of " + report.getEntries() + " entries, the first in line "
+							+ report.getFirstCorruptLine() + (report.isTornTail() ? "; the last entry is incomplete." : "."));
+				}
+			}
 		}
 		
-		if(!logfile.delete()) {
-			Files.delete(Paths.get(logfile.getAbsolutePath()));
-			System.out.println("Failed!");
-			return false;
-		} else {
-			System.out.println("Successful!");
+		if(!found) {
+			System.out.println("No logfile named \"" + logfile.getName() + "\" available to be verified.");
 		}
+	}
+	
+	/**
+	 * Prints every entry of the yearly log-files and their segments that matches the query, followed by a summary.
+	 * Only the log-files of the years in the date range of the query are scanned.
+	 * 
+	 * @throws IOException if any IOExceptions occur with the files
+	 */
+	private void queryLog() throws IOException {
+		Logger.close();
 		
-		System.out.print("Creating new empty logfile at \"" + logfile.getAbsolutePath() + "\"... ");
-		if(!logfile.createNewFile()) {
-			System.out.print("File already exists. This should not be possible!");
-		} else {
-			System.out.print("Successful!");
+		Pattern logfilePattern = Pattern.compile(LOGFILE_PATTERN);
+		Pattern archivePattern = Pattern.compile(ARCHIVE_PATTERN);
+		TreeSet<Integer> years = new TreeSet<>();
+		String[] names = DIRECTORY_PATH.toFile().list();
+		for(String name : names == null ? new String[0] : names) {
+			Matcher matcher = logfilePattern.matcher(name);
+			if(!matcher.matches()) {
+				matcher = archivePattern.matcher(name);
+			}
+			if(matcher.matches() && query.covers(Integer.parseInt(matcher.group(1)))) {
+				years.add(Integer.parseInt(matcher.group(1)));
+			}
+		}
+		if(years.isEmpty()) {
+			System.out.println("No logfiles available at \"" + DIRECTORY_PATH + "\" to be queried.");
+			return;
 		}
 		
-		return true;
+		long matches = 0;
+		long scanned = 0;
+		long total = 0;
+		int files = 0;
+		long started = System.nanoTime();
+		for(int year : years) {
+			File logfile = new File(DIRECTORY_PATH.toString() + "/clock_" + year + ".log");
+			for(File file : logFiles(logfile)) {
+				File archived = LogArchive.archiveFile(file);
+				LogQuery.Result result;
+				if(file.exists()) {
+					result = query.run(file, file == logfile, System.out::println);
+				} else if(archived.exists()) {
+					result = query.runArchive(archived, System.out::println);
+				} else {
+					continue;
+				}
+				matches += result.getMatches();
+				scanned += result.getScannedBytes();
+				total += result.getTotalBytes();
+				files++;
+			}
+		}
+		System.out.println(STRING_LINE_SEPERATOR + "Found " + matches + (matches == 1 ? " matching entry" : " matching entries") + " in " + files
+				+ (files == 1 ? " logfile" : " logfiles") + ", scanned " + (scanned + 1023) / 1024 + " of " + (total + 1023) / 1024 + " KiB in "
+				+ (System.nanoTime() - started) / 1_000_000 + "ms.");
+	}
+	
+	/**
+	 * Compresses the logfiles of past years and their segments into {@link LogArchive}s. A logfile whose log-file
+	 * or segments are still written, e.g. by a timer running since the last year, is skipped as a whole.
+	 * 
+	 * @return the number of archived files
+	 * @throws IOException if any IOExceptions occur with the files
+	 */
+	private int archivePastLogs() throws IOException {
+		Pattern logfilePattern = Pattern.compile(LOGFILE_PATTERN);
+		int year = timeSource.today().getYear();
+		List<File> finished = new ArrayList<>();
+		String[] names = DIRECTORY_PATH.toFile().list();
+		for(String name : names == null ? new String[0] : names) {
+			Matcher matcher = logfilePattern.matcher(name);
+			if(matcher.matches() && Integer.parseInt(matcher.group(1)) < year) {
+				List<File> files = new ArrayList<>();
+				boolean written = false;
+				for(File file : logFiles(new File(DIRECTORY_PATH.toString() + "/" + name))) {
+					if(file.exists()) {
+						files.add(file);
+						written |= LogArchive.isWritten(file);
+					}
+				}
+				if(written) {
+					Logger.info("Skipped archiving logfile {}, it is still written.", name);
+				} else {
+					finished.addAll(files);
+				}
+			}
+		}
+		
+		int archived = 0;
+		for(File file : finished) {
+			long length = file.length();
+			long size = LogArchive.archive(file);
+			if(size >= 0) {
+				Logger.info("Archived logfile {} ({} KiB to {} KiB).", file.getName(), length / 1024, size / 1024);
+				archived++;
+			}
+		}
+		return archived;
+	}
+	
+	/**
+	 * Archives the logfiles of past years on a background thread, so the timer starts without waiting for it.
+	 */
+	private void startArchival() {
+		SinkRunner.newThread("Log-Archiver", () -> {
+			try {
+				archivePastLogs();
+			} catch(IOException e) {
+				Logger.error(e);
+			}
+		}).start();
+	}
+	
+	/**
+	 * Calculates the ending of the timer for every row of the batch input and writes them to the batch output.
+	 * 
+	 * @throws IOException if any IOExceptions occur with the files
+	 */
+	private void runBatch() throws IOException {
+		System.out.print("Calculating endings of \"" + batchInput.getAbsolutePath() + "\"... ");
+		ShiftBatch.Result result = new ShiftBatch(DEFAULT_TIMER).run(batchInput, batchOutput);
+		Logger.info("Batch of {} finished: {}.", batchInput, result);
+		System.out.println("Successful! Wrote " + result.getRows() + (result.getRows() == 1 ? " row" : " rows") + " to \"" + batchOutput.getAbsolutePath() + "\""
+				+ " in " + result.getNanos() / 1_000_000 + "ms (" + Math.round(result.getRowsPerSecond()) + " rows per second).");
+		if(result.getInvalid() > 0) {
+			System.out.println("Skipped " + result.getInvalid() + (result.getInvalid() == 1 ? " invalid row." : " invalid rows."));
+		}
+	}
+	
+	/**
+	 * Opens the overtime ledger next to the log-file and informs the user about the accumulated overtime.
+	 * If the ledger cannot be opened the timer continues without it.
+	 */
+	private void openLedger() {
+		File ledgerFile = OvertimeLedger.ledgerFile(logfile());
+		try {
+			ledger = new OvertimeLedger(ledgerFile);
+		} catch(IOException e) {
+			Logger.error(e);
+			System.out.println("Could not open overtime ledger: " + e.getMessage() + STRING_LINE_SEPERATOR
+					+ "It can be recreated from the log-file with -L|--rebuildledger." + STRING_LINE_SEPERATOR);
+			return;
+		}
+		
+		if(ledger.size() > 0) {
+			String accumulated = formatOvertime(ledger.getTotalOvertime());
+			Logger.info("Accumulated overtime of {} {} is {}.", ledger.size(), ledger.size() == 1 ? "session" : "sessions", accumulated);
+			System.out.println("Accumulated overtime this year: " + accumulated + "." + STRING_LINE_SEPERATOR);
+		}
+	}
+	
+	/**
+	 * Starts serving the state of the timer on the daemon port and the status socket next to the logfile. If the
+	 * service cannot be started the timer shows its state on the console instead.
+	 * 
+	 * @return the started service; {@code null} if it could not be started
+	 */
+	private StatusService startStatusService() {
+		Path socketPath = DIRECTORY_PATH.resolve(STATUS_SOCKET_NAME);
+		StatusService service = new StatusService(daemonPort, socketPath, timeSource);
+		try {
+			Files.createDirectories(DIRECTORY_PATH);
+			service.start();
+		} catch(IOException e) {
+			Logger.error(e);
+			System.out.println("Could not start the status service: " + e.getMessage() + STRING_LINE_SEPERATOR);
+			try {
+				service.close();
+			} catch(IOException closing) {
+				Logger.error(closing);
+			}
+			return null;
+		}
+		Logger.info("Serving timer status on port {}{}.", service.getPort(), service.hasSocket() ? " and at " + socketPath : "");
+		System.out.println("Serving timer status at http://localhost:" + service.getPort() + "/"
+				+ (service.hasSocket() ? " and at \"" + socketPath + "\"" : "") + "." + STRING_LINE_SEPERATOR);
+		return service;
+	}
+	
+	/**
+	 * Opens the checkpoint of the running timer. With {@code resume} the configuration of the last timer is read from
+	 * it, so the timer continues where it was when its process ended; a checkpoint that was last updated more than
+	 * {@value TimerCheckpoint#STALE_HOURS} hours ago belongs to an earlier day and is not resumed. If the checkpoint
+	 * cannot be opened, e.g. because another timer is running, the timer runs without it.
+	 */
+	private void openCheckpoint() {
+		try {
+			Files.createDirectories(DIRECTORY_PATH);
+			checkpoint = new TimerCheckpoint(TimerCheckpoint.checkpointFile(DIRECTORY_PATH.toFile()));
+		} catch(IOException e) {
+			Logger.error(e);
+			System.out.println("Could not open timer checkpoint: " + e.getMessage() + STRING_LINE_SEPERATOR
+					+ "The timer cannot be resumed with -R|--resume if the process ends." + STRING_LINE_SEPERATOR);
+			return;
+		}
+		
+		if(resume) {
+			TimerCheckpoint.Snapshot snapshot = checkpoint.read();
+			if(snapshot == null) {
+				System.out.println("No timer available to be resumed, starting a new timer." + STRING_LINE_SEPERATOR);
+				return;
+			}
+			LocalDateTime updated = LocalDateTime.ofInstant(Instant.ofEpochMilli(snapshot.getUpdatedMillis()), timeSource.zone()).truncatedTo(ChronoUnit.MINUTES);
+			if(snapshot.isStale(timeSource.millis())) {
+				Logger.info("Not resuming stale timer from {}.", snapshot);
+				System.out.println("The last timer started on " + snapshot.getStartDate() + " at " + snapshot.getTime() + " was last running on "
+						+ updated.toLocalDate() + " at " + updated.toLocalTime() + " and is too old to be resumed, starting a new timer." + STRING_LINE_SEPERATOR);
+				return;
+			}
+			startDate = snapshot.getStartDate();
+			time = snapshot.getTime();
+			breaktime = snapshot.getBreaktime();
+			overtime = snapshot.getOvertime();
+			freetime = snapshot.getFreetime();
+			nextDay = snapshot.isNextDay();
+			currentOvertime = snapshot.getCurrentOvertime();
+			Logger.info("Resuming timer from {}.", snapshot);
+			System.out.println("Resuming timer started on " + startDate + " at " + time + (snapshot.isFinished() ? ", which ended at " : ", last running at ")
+					+ updated.toLocalTime() + "." + STRING_LINE_SEPERATOR);
+		}
+	}
+	
+	/**
+	 * Writes the session that ends now into the log and the overtime ledger. The overtime of the session is the
+	 * time passed since the ending of the timer, which includes the given break, overtime and freetime; it is
+	 * negative if the session ended before the timer ran out. Nothing is recorded if the timer did not start yet.
+	 */
+	private void recordSession() {
+		if(startDate == null) {
+			return;
+		}
+		LocalDateTime ended = LocalDateTime.ofInstant(Instant.ofEpochMilli(timeSource.millis()), timeSource.zone()).truncatedTo(ChronoUnit.MINUTES);
+		LocalTime now = ended.toLocalTime();
+		long sessionOvertime = ChronoUnit.MINUTES.between(calculateTimer().endingOn(startDate), ended);
+		
+		Logger.info(() -> OvertimeLedger.sessionMessage(time, now, breaktime, sessionOvertime));
+		if(ledger != null) {
+			try {
+				ledger.appendOrReplaceLast(startDate, time, now, breaktime, sessionOvertime);
+				ledger.close();
+			} catch(IOException | IllegalArgumentException e) {
+				Logger.error(e);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the log-file followed by all segments it would have in rolling mode.
+	 * 
+	 * @param logfile - the log-file
+	 * @return array containing {@code logfile} and its segments
+	 */
+	private File[] logFiles(File logfile) {
+		File[] segments = MappedRollingLog.segmentFiles(logfile, LOG_SEGMENT_COUNT);
+		File[] files = new File[segments.length + 1];
+		files[0] = logfile;
+		System.arraycopy(segments, 0, files, 1, segments.length);
+		return files;
 	}
 	
 	/**
@@ -343,26 +896,38 @@ public class Clock {
 	 * @param reference - the point in time to build the difference to
 	 * @return {@code String} that tells the difference between {@code before} and {@code reference}
 	 */
-	private String formatTimeDifference(LocalTime before, LocalTime reference) {
-		int mvb = before.getHour() * 60 + before.getMinute(); // minute value for before
-		int mvr = reference.getHour() * 60 + reference.getMinute(); // minute value for reference
-		
-		
-		if(mvb > mvr) {
-			mvr += 1440; // add a full day's worth of minutes
+	static String formatTimeDifference(LocalTime before, LocalTime reference) {
+		return formatTimeDifference(Minutes.of(before), Minutes.of(reference));
+	}
+	
+	/**
+	 * Calculates the difference between two times packed as {@link Minutes} like {@link #formatTimeDifference(LocalTime, LocalTime)}.
+	 * The text is looked up in the precomputed {@link DurationText} table and not built again.
+	 * 
+	 * @param before - the packed point in time from which to build the difference from
+	 * @param reference - the packed point in time to build the difference to
+	 * @return {@code String} that tells the difference between {@code before} and {@code reference}
+	 */
+	static String formatTimeDifference(int before, int reference) {
+		return DurationText.ENGLISH.text(Minutes.until(before, reference));
+	}
+
+	/**
+	 * Formats an amount of overtime in minutes like {@link #formatTimeDifference(LocalTime, LocalTime)}, with a
+	 * leading "-" for negative amounts and "0 minutes" for none.
+	 * 
+	 * @param minutes - overtime in minutes
+	 * @return {@code String} that tells the amount of overtime
+	 */
+	private String formatOvertime(long minutes) {
+		if(minutes == 0) {
+			return "0 minutes";
 		}
-		
-		int difference = mvr - mvb;
-		int hours = difference / 60;
-		int minutes = difference % 60;
-		
-		
-		return  (hours > 0 ? hours > 1 ? hours + " hours" : hours + " hour" : "") + ((hours > 0 && minutes > 0) ? " " : "") +
-				(minutes > 0 ? minutes > 1 ? minutes + " minutes" : minutes + " minute" : "");
+		return DurationText.ENGLISH.text(minutes);
 	}
 
-	private LocalTime calculateTimer() {
-		return time.plusHours(DEFAULT_TIMER + breaktime.getHour() + overtime.getHour() - freetime.getHour()).plusMinutes(breaktime.getMinute() + overtime.getMinute() - freetime.getMinute());
+	private Deadline calculateTimer() {
+		return Deadline.of(time, DEFAULT_TIMER, breaktime, overtime, freetime);
 	}
 	
 	/**
@@ -373,25 +938,76 @@ public class Clock {
 	        public void run() {
 	        	Logger.warning("Process was killed irregularly!");
 	            System.out.println(STRING_LINE_SEPERATOR + "Process was killed irregularly!");
+	            if(log) {
+	            	recordSession();
+	            }
+	            if(checkpoint != null) {
+	            	checkpoint.finish(timeSource.millis());
+	            	checkpoint.close();
+	            }
+	            if(status != null) {
+	            	try {
+	            		status.close();
+	            	} catch (IOException e) {
+	            		Logger.error(e);
+	            	}
+	            }
+	            try {
+	            	Logger.close();
+	            } catch (IOException e) {
+	            	System.out.println("Could not close logfile: " + e.getMessage());
+	            }
 	        }
 	    }, "Shutdown-Thread"));
 	}
 	
 	/**
-	 * Creates a new log-file at the given FILE_PATH constant and initiates the logger to log into that file with log-level INFO.
+	 * Initiates the logger to log into the log-file at the given DIRECTORY_PATH constant with log-level INFO. In rolling
+	 * mode the logger writes into size-capped memory-mapped segments of the log-file instead. The directory and the
+	 * log-file are only created once the first entry is written, so commands that do not log never touch them.
+	 */
+	private void initiateLogger() {
+		if(rolling) {
+			Logger.initRollingLazily(logfile(), Level.INFO, LOG_SEGMENT_SIZE, LOG_SEGMENT_COUNT);
+		} else {
+			Logger.initLazily(logfile(), Level.INFO);
+		}
+	}
+	
+	/**
+	 * Creates the log-file of the initiated logger before the timer starts, so the user can decide how to continue
+	 * if that fails.
 	 * 
-	 * @return {@code true} if the file does not exist and was successfully created; {@code false} if the file already exists
+	 * @return {@code true} if the file did not exist and was successfully created; {@code false} if the file already exists
 	 * @throws IOException if an I/O-Exception occurs while creating
 	 */
-	private boolean createLogfileAndInitiateLogger() throws IOException {
-		File logfile = new File(DIRECTORY_PATH.toString() + "/" + LOGFILE_NAME);
-		Files.createDirectories(DIRECTORY_PATH);
-		
-		boolean isNew = logfile.createNewFile();
-		
-		Logger.init(logfile, Level.INFO);
-		
-		return isNew;	
+	private boolean openLogfile() throws IOException {
+		File logfile = logfile();
+		boolean isNew = rolling ? !MappedRollingLog.segmentFiles(logfile, LOG_SEGMENT_COUNT)[0].exists() : !logfile.exists();
+		Logger.open();
+		return isNew;
+	}
+	
+	/**
+	 * @return the log-file of the current year
+	 */
+	private File logfile() {
+		return new File(DIRECTORY_PATH.toFile(), "clock_" + LocalDate.now().getYear() + ".log");
+	}
+	
+	/**
+	 * Maps the name of an {@link OverflowPolicy} like "block", "drop" or "sync" to the corresponding policy.
+	 * 
+	 * @param string {@code String} containing the name of a policy
+	 * @return the {@link OverflowPolicy} with the given name; {@code null} if there is none
+	 */
+	private OverflowPolicy parseOverflowPolicy(String string) {
+		switch(string.toLowerCase()) {
+			case "block": return OverflowPolicy.BLOCK;
+			case "drop": return OverflowPolicy.DROP;
+			case "sync": return OverflowPolicy.SYNC;
+			default: return null;
+		}
 	}
 	
 	/**
@@ -425,7 +1041,7 @@ public class Clock {
 				+ "file = " + log + STRING_LINE_SEPERATOR);
 		System.out.println("Programm defaults are set to:" + STRING_LINE_SEPERATOR
 				+ "------------------------------" + STRING_LINE_SEPERATOR
-				+ "update interval = " + UPDATE_INTERVAL + "ms" + STRING_LINE_SEPERATOR
+				+ "update resolution = " + UPDATE_RESOLUTION + "ms" + STRING_LINE_SEPERATOR
 				+ "default timer length = " + DEFAULT_TIMER + STRING_LINE_SEPERATOR
 				+ "file path = " + DIRECTORY_PATH);
 	}
@@ -477,10 +1093,57 @@ public class Clock {
 				+ "                        | \"" + DIRECTORY_PATH + "\"." + STRING_LINE_SEPERATOR
 				+ "                        | Only affects the current instance of execution." + STRING_LINE_SEPERATOR
 				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -a --async <policy>   | Writes log entries on a separate thread so the timer is" + STRING_LINE_SEPERATOR
+				+ "                        | never delayed by the log-file. The <policy> parameter" + STRING_LINE_SEPERATOR
+				+ "                        | decides what happens if the log buffer is full:" + STRING_LINE_SEPERATOR
+				+ "                        | \"block\" waits, \"drop\" discards and counts the entry," + STRING_LINE_SEPERATOR
+				+ "                        | \"sync\" writes the entry directly." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -R --resume           | Resumes the last timer with its start, break, overtime" + STRING_LINE_SEPERATOR
+				+ "                        | and freetime, e.g. after its process was killed. The" + STRING_LINE_SEPERATOR
+				+ "                        | timer is saved in \"" + TimerCheckpoint.FILE_NAME + "\" next to the logfile." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -d --daemon [port]    | Serves the state of the timer as JSON instead of showing" + STRING_LINE_SEPERATOR
+				+ "                        | it on the console: over HTTP at localhost:[port]" + STRING_LINE_SEPERATOR
+				+ "                        | (default " + STATUS_PORT + ") and at the socket \"" + STATUS_SOCKET_NAME + "\" next to" + STRING_LINE_SEPERATOR
+				+ "                        | the logfile, e.g. for dashboards or shell prompts." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -r --rolling          | Logs into " + LOG_SEGMENT_COUNT + " memory-mapped segments of " + (LOG_SEGMENT_SIZE / 1024) + " KiB" + STRING_LINE_SEPERATOR
+				+ "                        | each instead of a single log-file. If all segments are" + STRING_LINE_SEPERATOR
+				+ "                        | full the oldest one is overwritten." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
 				+ "  -c --clearlog         | Clears the logfile currently located at " + STRING_LINE_SEPERATOR
 				+ "                        | \"" + DIRECTORY_PATH + "\"." + STRING_LINE_SEPERATOR
 				+ "                        | Then immediatly exits the programm." + STRING_LINE_SEPERATOR
 				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -V --verifylog        | Checks every entry of the logfile for torn or interleaved" + STRING_LINE_SEPERATOR
+				+ "                        | lines. Then immediatly exits the programm." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -B --batch <input>    | Calculates the ending of the timer for every row of the" + STRING_LINE_SEPERATOR
+				+ "     <output>           | CSV file <input> with the columns \"employee,start,break," + STRING_LINE_SEPERATOR
+				+ "                        | overtime,freetime\" and writes \"employee,end,days," + STRING_LINE_SEPERATOR
+				+ "                        | overtime\" rows to <output>. Then immediatly exits the" + STRING_LINE_SEPERATOR
+				+ "                        | programm." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -Q --query [filters]  | Prints the entries of all yearly logfiles that match every" + STRING_LINE_SEPERATOR
+				+ "                        | given filter: \"--from <date>\" and \"--to <date>\" with" + STRING_LINE_SEPERATOR
+				+ "                        | dates like \"2024-03-31\", \"--level <level>\" with one of" + STRING_LINE_SEPERATOR
+				+ "                        | DEBUG, INFO, WARNING or ERROR and \"--contains <text>\"." + STRING_LINE_SEPERATOR
+				+ "                        | Then immediatly exits the programm." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -A --archive          | Compresses the logfiles of past years, which otherwise" + STRING_LINE_SEPERATOR
+				+ "                        | happens in the background when a timer starts. Archived" + STRING_LINE_SEPERATOR
+				+ "                        | logfiles can still be queried. Then immediatly exits the" + STRING_LINE_SEPERATOR
+				+ "                        | programm." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -L --rebuildledger    | Recreates the overtime ledger next to the logfile from" + STRING_LINE_SEPERATOR
+				+ "                        | the sessions found in the logfile. Then immediatly exits" + STRING_LINE_SEPERATOR
+				+ "                        | the programm." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
+				+ "  -S --sessions         | Prints the sessions of this year from the overtime" + STRING_LINE_SEPERATOR
+				+ "     [filters]          | ledger and their overtime, limited by \"--from <date>\"" + STRING_LINE_SEPERATOR
+				+ "                        | and \"--to <date>\". Then immediatly exits the programm." + STRING_LINE_SEPERATOR
+				+ "                        |" + STRING_LINE_SEPERATOR
 				+ "  -h --help             | Prints this help text and exits the programm." + STRING_LINE_SEPERATOR
 				+ "                        |" + STRING_LINE_SEPERATOR
 				+ "  -v --verbose          | Prints additional info on execution." + STRING_LINE_SEPERATOR
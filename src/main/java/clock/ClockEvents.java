@@ -0,0 +1,160 @@
+package clock;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import jdk.jfr.Timestamp;
+
+/**
+ * <p>JDK Flight Recorder events of the timer, the console and the logger. Events are only created while a
+ * recording is running, e.g. after starting the process with {@code -XX:StartFlightRecording:filename=clock.jfr},
+ * and only committed if the recording enables them; otherwise they cost a check of {@link #isRecording()}, a flag
+ * kept up to date by a listener of the recorder.</p>
+ *
+ * <p>Durations of render, write and flush events are the durations of the events themselves.</p>
+ */
+final class ClockEvents {
+
+	private static final String CATEGORY = "Clock";
+	private static final Set<Recording> RUNNING = ConcurrentHashMap.newKeySet();
+
+	private static volatile boolean recording = false;
+
+	static {
+		FlightRecorder.addListener(new FlightRecorderListener() {
+			@Override
+			public void recorderInitialized(FlightRecorder recorder) {
+				// recordings started with the JVM run before the listener was added
+				for(Recording started : recorder.getRecordings()) {
+					recordingStateChanged(started);
+				}
+			}
+
+			@Override
+			public void recordingStateChanged(Recording changed) {
+				if(changed.getState() == RecordingState.RUNNING) {
+					RUNNING.add(changed);
+				} else {
+					RUNNING.remove(changed);
+				}
+				recording = !RUNNING.isEmpty();
+			}
+		});
+	}
+
+	private ClockEvents() {
+	}
+
+	/**
+	 * @return {@code true} while a recording is running, so creating an event is worth it
+	 */
+	static boolean isRecording() {
+		return recording;
+	}
+
+	@Name("clock.TimerTick")
+	@Label("Timer Tick")
+	@Description("Wakeup of the timekeeping thread at a scheduled boundary")
+	@Category({CATEGORY, "Timer"})
+	@StackTrace(false)
+	static final class TimerTick extends Event {
+		@Label("Scheduled Wakeup")
+		@Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+		long scheduled;
+
+		@Label("Actual Wakeup")
+		@Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+		long actual;
+
+		@Label("Drift")
+		@Description("Delay of the actual wakeup after the scheduled one")
+		@Timespan(Timespan.MILLISECONDS)
+		long drift;
+	}
+
+	@Name("clock.ConsoleRender")
+	@Label("Console Render")
+	@Description("Rendering of a frame of the console line")
+	@Category({CATEGORY, "Console"})
+	@StackTrace(false)
+	static final class ConsoleRender extends Event {
+		@Label("Written")
+		@DataAmount
+		int written;
+	}
+
+	@Name("clock.LogWrite")
+	@Label("Log Write")
+	@Description("Encoding of a log entry into the buffer of the log-file")
+	@Category({CATEGORY, "Logger"})
+	@StackTrace(false)
+	static final class LogWrite extends Event {
+		@Label("Level")
+		String level;
+
+		@Label("Size")
+		@DataAmount
+		int bytes;
+	}
+
+	@Name("clock.LogFlush")
+	@Label("Log Flush")
+	@Description("Flush of the pending log entries to the log-file")
+	@Category({CATEGORY, "Logger"})
+	@StackTrace(false)
+	static final class LogFlush extends Event {
+		@Label("Size")
+		@DataAmount
+		int bytes;
+	}
+
+	@Name("clock.LogDiscarded")
+	@Label("Log Records Discarded")
+	@Description("Log records that were dropped because of a full buffer or suppressed as repeated errors")
+	@Category({CATEGORY, "Logger"})
+	@StackTrace(false)
+	static final class LogDiscarded extends Event {
+		@Label("Reason")
+		String reason;
+
+		@Label("Records")
+		long records;
+	}
+
+	static void timerTick(long scheduledMillis, long actualMillis) {
+		if(!recording) {
+			return;
+		}
+		TimerTick event = new TimerTick();
+		if(event.shouldCommit()) {
+			event.scheduled = scheduledMillis;
+			event.actual = actualMillis;
+			event.drift = actualMillis - scheduledMillis;
+			event.commit();
+		}
+	}
+
+	static void logDiscarded(String reason, long records) {
+		if(!recording) {
+			return;
+		}
+		LogDiscarded event = new LogDiscarded();
+		if(event.shouldCommit()) {
+			event.reason = reason;
+			event.records = records;
+			event.commit();
+		}
+	}
+}
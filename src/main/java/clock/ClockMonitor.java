@@ -0,0 +1,203 @@
+package clock;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import clock.Deadline.State;
+
+/**
+ * <p>Live counters and the current state of the timer and the logger, exposed over JMX through the
+ * {@link ClockMonitorMBean} interface, e.g. to {@code jconsole}. The counters are updated by the timekeeping,
+ * sink and logger threads without locks and can be read at any time.</p>
+ */
+class ClockMonitor implements ClockMonitorMBean {
+
+	static final String OBJECT_NAME = "clock:type=ClockMonitor";
+
+	private static final ClockMonitor INSTANCE = new ClockMonitor();
+
+	private final LongAdder ticks = new LongAdder();
+	private final LongAdder totalDrift = new LongAdder();
+	private final AtomicLong maxDrift = new AtomicLong();
+	private final LongAdder renders = new LongAdder();
+	private final LongAdder framesWritten = new LongAdder();
+	private final LongAdder logEntries = new LongAdder();
+	private final LongAdder logBytes = new LongAdder();
+	private final LongAdder logFlushes = new LongAdder();
+	private final LongAdder flushedLogBytes = new LongAdder();
+	private final LongAdder droppedLogEntries = new LongAdder();
+	private final LongAdder suppressedErrors = new LongAdder();
+
+	private volatile int ending = -1;
+	private volatile State state = null;
+	private volatile long currentOvertime = 0;
+	private volatile boolean nextDay = false;
+
+	private ClockMonitor() {
+	}
+
+	/**
+	 * @return the monitor of this process
+	 */
+	static ClockMonitor get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Registers the monitor at the platform MBean server. Registering it again has no effect.
+	 *
+	 * @throws JMException if the monitor could not be registered
+	 */
+	static void register() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+		} catch(InstanceAlreadyExistsException e) {
+			// already registered
+		}
+	}
+
+	/**
+	 * Publishes the state the timekeeping thread calculated last.
+	 */
+	void timerState(int endingMinute, State state, long currentOvertime, boolean nextDay) {
+		this.ending = endingMinute;
+		this.state = state;
+		this.currentOvertime = currentOvertime;
+		this.nextDay = nextDay;
+	}
+
+	void tick(long scheduledMillis, long actualMillis) {
+		long drift = Math.max(0, actualMillis - scheduledMillis);
+		ticks.increment();
+		totalDrift.add(drift);
+		maxDrift.accumulateAndGet(drift, Math::max);
+		ClockEvents.timerTick(scheduledMillis, actualMillis);
+	}
+
+	void rendered(boolean written) {
+		renders.increment();
+		if(written) {
+			framesWritten.increment();
+		}
+	}
+
+	void logWritten(int bytes) {
+		logEntries.increment();
+		logBytes.add(bytes);
+	}
+
+	void logFlushed(int bytes) {
+		logFlushes.increment();
+		flushedLogBytes.add(bytes);
+	}
+
+	void logDropped(long records) {
+		droppedLogEntries.add(records);
+		ClockEvents.logDiscarded("dropped", records);
+	}
+
+	void errorSuppressed() {
+		suppressedErrors.increment();
+		ClockEvents.logDiscarded("suppressed", 1);
+	}
+
+	@Override
+	public String getEnding() {
+		int minute = ending;
+		return minute < 0 ? null : Minutes.toString(minute);
+	}
+
+	@Override
+	public String getState() {
+		State current = state;
+		return current == null ? null : current.name();
+	}
+
+	@Override
+	public long getCurrentOvertime() {
+		return currentOvertime;
+	}
+
+	@Override
+	public boolean isNextDay() {
+		return nextDay;
+	}
+
+	@Override
+	public long getTicks() {
+		return ticks.sum();
+	}
+
+	@Override
+	public long getTotalDriftMillis() {
+		return totalDrift.sum();
+	}
+
+	@Override
+	public long getMaxDriftMillis() {
+		return maxDrift.get();
+	}
+
+	@Override
+	public long getRenders() {
+		return renders.sum();
+	}
+
+	@Override
+	public long getFramesWritten() {
+		return framesWritten.sum();
+	}
+
+	@Override
+	public long getLogEntries() {
+		return logEntries.sum();
+	}
+
+	@Override
+	public long getLogBytes() {
+		return logBytes.sum();
+	}
+
+	@Override
+	public long getLogFlushes() {
+		return logFlushes.sum();
+	}
+
+	@Override
+	public long getLogBytesPerFlush() {
+		long flushes = logFlushes.sum();
+		return flushes == 0 ? 0 : flushedLogBytes.sum() / flushes;
+	}
+
+	@Override
+	public long getDroppedLogEntries() {
+		return droppedLogEntries.sum();
+	}
+
+	@Override
+	public long getSuppressedErrors() {
+		return suppressedErrors.sum();
+	}
+
+	@Override
+	public void resetCounters() {
+		ticks.reset();
+		totalDrift.reset();
+		maxDrift.set(0);
+		renders.reset();
+		framesWritten.reset();
+		logEntries.reset();
+		logBytes.reset();
+		logFlushes.reset();
+		flushedLogBytes.reset();
+		droppedLogEntries.reset();
+		suppressedErrors.reset();
+	}
+}
@@ -0,0 +1,87 @@
+package clock;
+
+/**
+ * <p>Management interface of the {@link ClockMonitor}, registered as {@value ClockMonitor#OBJECT_NAME}.</p>
+ */
+public interface ClockMonitorMBean {
+
+	/**
+	 * @return ending of the running timer in the form "hh:mm"; {@code null} if no timer runs
+	 */
+	String getEnding();
+
+	/**
+	 * @return state of the running timer; {@code null} if no timer runs
+	 */
+	String getState();
+
+	/**
+	 * @return minutes passed since the ending of the running timer
+	 */
+	long getCurrentOvertime();
+
+	/**
+	 * @return {@code true} if the ending is on the next day
+	 */
+	boolean isNextDay();
+
+	/**
+	 * @return number of wakeups of the timekeeping thread
+	 */
+	long getTicks();
+
+	/**
+	 * @return sum of the delays of all wakeups after their scheduled time in milliseconds
+	 */
+	long getTotalDriftMillis();
+
+	/**
+	 * @return largest delay of a wakeup after its scheduled time in milliseconds
+	 */
+	long getMaxDriftMillis();
+
+	/**
+	 * @return number of frames rendered to the console, including unchanged ones
+	 */
+	long getRenders();
+
+	/**
+	 * @return number of frames that changed the console line
+	 */
+	long getFramesWritten();
+
+	/**
+	 * @return number of log entries written to the log-file buffer
+	 */
+	long getLogEntries();
+
+	/**
+	 * @return number of bytes written to the log-file buffer
+	 */
+	long getLogBytes();
+
+	/**
+	 * @return number of flushes of the log-file
+	 */
+	long getLogFlushes();
+
+	/**
+	 * @return average number of bytes written to the log-file per flush; {@code 0} if nothing was flushed yet
+	 */
+	long getLogBytesPerFlush();
+
+	/**
+	 * @return number of log entries dropped because of a full buffer in asynchronous mode
+	 */
+	long getDroppedLogEntries();
+
+	/**
+	 * @return number of repeated errors that were suppressed
+	 */
+	long getSuppressedErrors();
+
+	/**
+	 * Resets all counters to zero; the state of the timer is kept.
+	 */
+	void resetCounters();
+}
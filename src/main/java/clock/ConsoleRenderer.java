@@ -0,0 +1,138 @@
+package clock;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <p>Renders a single, continuously updated console line. The last emitted line is kept in a reusable byte buffer,
+ * so every frame only writes the backspaces to the first changed column, the changed suffix and the spaces needed
+ * to blank out a longer previous line. Frames without changes are not written at all.</p>
+ *
+ * <p>The cursor always stays at the end of the painted line. Lines are expected to contain ASCII only; other
+ * characters are rendered as {@code '?'}. Rendering a frame does not allocate unless a line is longer than every
+ * line before.</p>
+ */
+class ConsoleRenderer {
+
+	private static final byte BACKSPACE = '\b';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final byte SPACE = ' ';
+
+	private final WritableByteChannel out;
+
+	private byte[] painted = new byte[128];
+	private int paintedLength = 0;
+	private byte[] frame = new byte[256];
+	private ByteBuffer frameBuffer = ByteBuffer.wrap(frame);
+
+	/**
+	 * Creates a renderer that writes directly to the standard output.
+	 */
+	ConsoleRenderer() {
+		this(new FileOutputStream(FileDescriptor.out).getChannel());
+	}
+
+	/**
+	 * @param out - channel the frames are written to
+	 */
+	ConsoleRenderer(WritableByteChannel out) {
+		this.out = out;
+	}
+
+	/**
+	 * Replaces the painted line with {@code line}.
+	 *
+	 * @param line - new content of the line
+	 * @return {@code true} if anything was written; {@code false} if the line did not change
+	 * @throws IOException if writing to the channel failed
+	 */
+	boolean render(CharSequence line) throws IOException {
+		ClockEvents.ConsoleRender event = null;
+		if(ClockEvents.isRecording()) {
+			event = new ClockEvents.ConsoleRender();
+			event.begin();
+		}
+		int written = paint(line);
+		ClockMonitor.get().rendered(written > 0);
+		if(event != null && event.shouldCommit()) {
+			event.written = written;
+			event.commit();
+		}
+		return written > 0;
+	}
+
+	/**
+	 * @return number of bytes written; {@code 0} if the line did not change
+	 */
+	private int paint(CharSequence line) throws IOException {
+		int length = line.length();
+		int target = Math.max(length, paintedLength);
+		ensureCapacity(target);
+
+		int first = 0;
+		while(first < target && painted(first) == byteAt(line, first, length)) {
+			first++;
+		}
+		if(first == target) {
+			return 0;
+		}
+
+		int position = 0;
+		if(first == 0) {
+			frame[position++] = CARRIAGE_RETURN;
+		} else {
+			for(int i = first; i < paintedLength; i++) {
+				frame[position++] = BACKSPACE;
+			}
+		}
+		for(int i = first; i < target; i++) {
+			byte b = byteAt(line, i, length);
+			frame[position++] = b;
+			painted[i] = b;
+		}
+		paintedLength = target;
+
+		// text printed through System.out has to appear before the frame
+		System.out.flush();
+		frameBuffer.clear().limit(position);
+		while(frameBuffer.hasRemaining()) {
+			out.write(frameBuffer);
+		}
+		return position;
+	}
+
+	/**
+	 * Forgets the painted line, e.g. after other output moved the cursor to a new line.
+	 */
+	void reset() {
+		paintedLength = 0;
+	}
+
+	private byte painted(int index) {
+		return index < paintedLength ? painted[index] : SPACE;
+	}
+
+	private static byte byteAt(CharSequence line, int index, int length) {
+		if(index >= length) {
+			return SPACE;
+		}
+		char c = line.charAt(index);
+		return c < 0x80 ? (byte) c : (byte) '?';
+	}
+
+	private void ensureCapacity(int length) {
+		if(painted.length < length) {
+			byte[] grown = new byte[Math.max(length, painted.length * 2)];
+			System.arraycopy(painted, 0, grown, 0, paintedLength);
+			painted = grown;
+		}
+		// worst case: backspaces over the whole painted line followed by the whole new line
+		if(frame.length < paintedLength + length + 1) {
+			frame = new byte[Math.max(paintedLength + length + 1, frame.length * 2)];
+			frameBuffer = ByteBuffer.wrap(frame);
+		}
+	}
+}
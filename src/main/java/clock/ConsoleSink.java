@@ -0,0 +1,52 @@
+package clock;
+
+import java.io.IOException;
+
+/**
+ * <p>Sink that shows the state of the timer as a single, continuously updated console line.</p>
+ */
+class ConsoleSink implements StateSink {
+
+	private final boolean verbose;
+	private final ConsoleRenderer renderer = new ConsoleRenderer();
+	private final StringBuilder frame = new StringBuilder(128);
+	private final DurationText durations = DurationText.ENGLISH;
+
+	/**
+	 * @param verbose - {@code true} if the seconds until the next update should be shown
+	 */
+	ConsoleSink(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	@Override
+	public void accept(TimerState state) {
+		frame.setLength(0);
+		switch(state.getState()) {
+			case RUNNING: {
+				Minutes.appendTo(frame.append("Timer runs out at "), state.getEndingMinute()).append(" in ");
+				durations.appendTo(frame, Minutes.until(state.getNowMinute(), state.getEndingMinute())).append('.');
+			} break;
+			case OVERTIME: {
+				Minutes.appendTo(frame.append("Timer already ran out at "), state.getEndingMinute()).append(", ");
+				durations.appendTo(frame, Minutes.until(state.getEndingMinute(), state.getNowMinute())).append(" ago.");
+			} break;
+			default: {
+				frame.append("Timer is over right now!");
+			}
+		}
+		if(verbose && state.getSecondsUntilUpdate() >= 0) {
+			frame.append(" Sleeping for approx. ").append(state.getSecondsUntilUpdate()).append(" seconds.");
+		}
+
+		try {
+			renderer.render(frame);
+		} catch (IOException e) {
+			Logger.error(e);
+			if(verbose) {
+				System.out.println("Recieved IOException while writing bytes to output!");
+				renderer.reset();
+			}
+		}
+	}
+}
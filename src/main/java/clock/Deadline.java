@@ -0,0 +1,159 @@
+package clock;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * <p>Immutable ending of a timer that starts at a given time and runs for a number of hours plus breaks and
+ * overtime minus freetime. Holds the logic to decide whether a point in time is before, at or after the ending,
+ * including endings on the next day.</p>
+ *
+ * <p>All calculations work on times packed as {@link Minutes}, so evaluating a deadline never allocates.</p>
+ */
+public final class Deadline {
+
+	/**
+	 * State of a timer relative to its ending.
+	 */
+	public static enum State {
+		/** the ending lies in the future */
+		RUNNING,
+		/** the current minute is the ending */
+		EXPIRED,
+		/** the ending lies in the past */
+		OVERTIME
+	}
+
+	private final int start;
+	private final int ending;
+	private final boolean nextDay;
+	private final LocalTime endingTime;
+
+	private Deadline(int start, int ending) {
+		this.start = start;
+		this.ending = ending;
+		this.nextDay = ending < start;
+		this.endingTime = Minutes.toLocalTime(ending);
+	}
+
+	/**
+	 * Calculates the ending of a timer.
+	 *
+	 * @param time - start of the timer
+	 * @param hours - length of the timer in hours
+	 * @param breaktime - length of all breaks to be added
+	 * @param overtime - overtime to be added
+	 * @param freetime - freetime to be subtracted
+	 * @return the deadline of the timer
+	 */
+	static Deadline of(LocalTime time, int hours, LocalTime breaktime, LocalTime overtime, LocalTime freetime) {
+		return of(Minutes.of(time), hours, Minutes.of(breaktime), Minutes.of(overtime), Minutes.of(freetime));
+	}
+
+	/**
+	 * Calculates the ending of a timer from packed times.
+	 *
+	 * @param time - packed start of the timer
+	 * @param hours - length of the timer in hours
+	 * @param breaktime - length of all breaks to be added in minutes
+	 * @param overtime - overtime to be added in minutes
+	 * @param freetime - freetime to be subtracted in minutes
+	 * @return the deadline of the timer
+	 */
+	static Deadline of(int time, int hours, int breaktime, int overtime, int freetime) {
+		return new Deadline(time, endingOf(time, hours, breaktime, overtime, freetime));
+	}
+
+	/**
+	 * Calculates the packed ending of a timer without creating a deadline.
+	 *
+	 * @see #of(int, int, int, int, int)
+	 */
+	static int endingOf(int time, int hours, int breaktime, int overtime, int freetime) {
+		return Minutes.plus(time, (long) hours * Minutes.PER_HOUR + breaktime + overtime - freetime);
+	}
+
+	/**
+	 * Returns the state of the timer at {@code now}. {@code nextDay} tells whether the ending is still on the
+	 * next day from the point of view of {@code now}; it has to be reset once the day changed.
+	 *
+	 * @param now - point in time to be checked
+	 * @param nextDay - {@code true} if the ending is on the day after {@code now}
+	 * @return state of the timer
+	 */
+	State stateAt(LocalTime now, boolean nextDay) {
+		return stateAt(Minutes.of(now), nextDay);
+	}
+
+	/**
+	 * @see #stateAt(LocalTime, boolean)
+	 */
+	State stateAt(int now, boolean nextDay) {
+		int compareValue = Minutes.compare(now, ending);
+		if(compareValue < 0 || nextDay) {
+			return State.RUNNING;
+		} else if(compareValue > 0) {
+			return State.OVERTIME;
+		}
+		return State.EXPIRED;
+	}
+
+	/**
+	 * @param now - point in time after the ending
+	 * @return minutes passed since the ending
+	 */
+	long overtimeAt(LocalTime now) {
+		return overtimeAt(Minutes.of(now));
+	}
+
+	/**
+	 * @param now - packed point in time after the ending
+	 * @return minutes passed since the ending
+	 */
+	int overtimeAt(int now) {
+		return Minutes.between(ending, now);
+	}
+
+	/**
+	 * @param startDate - date the timer started on
+	 * @return date and time of the ending
+	 */
+	LocalDateTime endingOn(LocalDate startDate) {
+		return LocalDateTime.of(nextDay ? startDate.plusDays(1) : startDate, endingTime);
+	}
+
+	LocalTime getStart() {
+		return Minutes.toLocalTime(start);
+	}
+
+	LocalTime getEnding() {
+		return endingTime;
+	}
+
+	/**
+	 * @return packed start of the timer
+	 */
+	int getStartMinute() {
+		return start;
+	}
+
+	/**
+	 * @return packed ending of the timer
+	 */
+	int getEndingMinute() {
+		return ending;
+	}
+
+	/**
+	 * @return {@code true} if the ending lies on the day after the start
+	 */
+	boolean isNextDay() {
+		return nextDay;
+	}
+
+	@Override
+	public String toString() {
+		return "Deadline [start=" + Minutes.toString(start) + ", ending=" + Minutes.toString(ending) + ", nextDay=" + nextDay + "]";
+	}
+}
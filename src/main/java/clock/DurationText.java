@@ -0,0 +1,80 @@
+package clock;
+
+/**
+ * <p>Immutable table of the rendered text of every duration between 0 and 1439 minutes in the form
+ * "h hours m minutes", like {@link Clock#formatTimeDifference(int, int)} builds it. The texts are computed once when
+ * the class is loaded, so rendering a duration afterwards is an array lookup that the console and the log share.</p>
+ *
+ * <p>Units are pluralized per value ("1 hour", "2 hours"). Durations of zero minutes render as an empty text.</p>
+ *
+ * <p>Only English texts are provided and no encoded bytes are kept. The console line and the log-file are English
+ * throughout, and log entries are read back by the query and the ledger rebuild, so a table per locale would have
+ * no user. The {@link ConsoleRenderer} and the {@link LogEncoder} encode whole lines into their own buffers, where
+ * a pre-encoded duration would save no copy.</p>
+ */
+final class DurationText {
+
+	static final DurationText ENGLISH = new DurationText("hour", "hours", "minute", "minutes");
+
+	private final String hour;
+	private final String hours;
+	private final String minute;
+	private final String minutes;
+	private final String[] texts = new String[Minutes.PER_DAY];
+
+	private DurationText(String hour, String hours, String minute, String minutes) {
+		this.hour = hour;
+		this.hours = hours;
+		this.minute = minute;
+		this.minutes = minutes;
+		StringBuilder builder = new StringBuilder(32);
+		for(int i = 0; i < Minutes.PER_DAY; i++) {
+			builder.setLength(0);
+			texts[i] = appendComputed(builder, i).toString();
+		}
+	}
+
+	/**
+	 * @param duration - duration in minutes; values outside of 0 to 1439 are built on every call
+	 * @return the rendered duration, e.g. "1 hour 5 minutes"
+	 */
+	String text(long duration) {
+		if(duration >= 0 && duration < Minutes.PER_DAY) {
+			return texts[(int) duration];
+		}
+		return appendComputed(new StringBuilder(32), duration).toString();
+	}
+
+	/**
+	 * Appends the rendered duration without allocating for durations between 0 and 1439 minutes.
+	 *
+	 * @param builder - builder to append to
+	 * @param duration - duration in minutes
+	 * @return {@code builder}
+	 */
+	StringBuilder appendTo(StringBuilder builder, long duration) {
+		if(duration >= 0 && duration < Minutes.PER_DAY) {
+			return builder.append(texts[(int) duration]);
+		}
+		return appendComputed(builder, duration);
+	}
+
+	private StringBuilder appendComputed(StringBuilder builder, long duration) {
+		if(duration < 0) {
+			builder.append('-');
+			duration = -duration;
+		}
+		long h = duration / Minutes.PER_HOUR;
+		long m = duration % Minutes.PER_HOUR;
+		if(h > 0) {
+			builder.append(h).append(' ').append(h > 1 ? hours : hour);
+		}
+		if(h > 0 && m > 0) {
+			builder.append(' ');
+		}
+		if(m > 0) {
+			builder.append(m).append(' ').append(m > 1 ? minutes : minute);
+		}
+		return builder;
+	}
+}
@@ -0,0 +1,107 @@
+package clock;
+
+import java.time.LocalTime;
+import java.util.concurrent.Flow;
+
+/**
+ * <p>Timer for embedding Clock into other tools. It keeps the time on its own thread and publishes its state
+ * through {@link #events()}, without console output or log-file:</p>
+ * <pre>
+ * try(EmbeddedTimer timer = new EmbeddedTimer(LocalTime.of(8, 0), 8, LocalTime.of(0, 30), LocalTime.MIDNIGHT, LocalTime.MIDNIGHT)) {
+ * 	timer.events().subscribe(subscriber);
+ * 	timer.start();
+ * 	...
+ * }
+ * </pre>
+ * <p>The timekeeping thread never waits for a subscriber, see {@link TickPublisher}.</p>
+ */
+public final class EmbeddedTimer implements AutoCloseable {
+
+	private final Deadline deadline;
+	private final TimeSource source;
+	private final TickPublisher events = new TickPublisher();
+
+	private TimerLoop loop = null;
+	private Thread thread = null;
+
+	/**
+	 * Creates a timer on the system clock in the default time zone.
+	 *
+	 * @param time - start of the timer
+	 * @param hours - length of the timer in hours
+	 * @param breaktime - length of all breaks to be added
+	 * @param overtime - overtime to be added
+	 * @param freetime - freetime to be subtracted
+	 */
+	public EmbeddedTimer(LocalTime time, int hours, LocalTime breaktime, LocalTime overtime, LocalTime freetime) {
+		this(time, hours, breaktime, overtime, freetime, java.time.Clock.systemDefaultZone());
+	}
+
+	/**
+	 * @param time - start of the timer
+	 * @param hours - length of the timer in hours
+	 * @param breaktime - length of all breaks to be added
+	 * @param overtime - overtime to be added
+	 * @param freetime - freetime to be subtracted
+	 * @param clock - wall-clock and time zone of the timer
+	 */
+	public EmbeddedTimer(LocalTime time, int hours, LocalTime breaktime, LocalTime overtime, LocalTime freetime, java.time.Clock clock) {
+		this(deadline(time, hours, breaktime, overtime, freetime), TimeSource.of(clock));
+	}
+
+	/**
+	 * @param deadline - deadline of the timer
+	 * @param source - source of the time, e.g. a {@link SimulatedTimeSource}
+	 */
+	EmbeddedTimer(Deadline deadline, TimeSource source) {
+		this.deadline = deadline;
+		this.source = source;
+	}
+
+	private static Deadline deadline(LocalTime time, int hours, LocalTime breaktime, LocalTime overtime, LocalTime freetime) {
+		if(hours < 0) {
+			throw new IllegalArgumentException("Hours have to be positive but are " + hours + ".");
+		}
+		return Deadline.of(time, hours, breaktime, overtime, freetime);
+	}
+
+	/**
+	 * @return publisher of the events of the timer; subscribers can subscribe before and after {@link #start()}
+	 */
+	public Flow.Publisher<TimerEvent> events() {
+		return events;
+	}
+
+	/**
+	 * Starts the timer on the current date of its clock.
+	 *
+	 * @throws IllegalStateException if the timer was already started
+	 */
+	public synchronized void start() {
+		if(loop != null) {
+			throw new IllegalStateException("Timer was already started.");
+		}
+		// an embedding tool has no log-file, so jumps of the wall-clock are only seen in the published states
+		loop = new TimerLoop(deadline, source.today(), source, events::publish, WakeupScheduler.MILLIS_PER_MINUTE, false, TimerLoop.Diagnostics.NONE);
+		thread = new Thread(loop::run, "Embedded-Timer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the timer and completes the subscribers once they received the events they requested.
+	 */
+	@Override
+	public synchronized void close() {
+		if(loop != null) {
+			loop.stop();
+			thread.interrupt();
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		events.close();
+	}
+}
@@ -0,0 +1,193 @@
+package clock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Collapses repeated errors in the log. An error is identified by its fingerprint, the type of the exception
+ * and its topmost stack frames. The first occurrence of a fingerprint is written in full; further occurrences
+ * within the window are only counted and written as a single "seen N more times" summary when the fingerprint
+ * occurs again after the window or when the logger is closed.</p>
+ *
+ * <p>Stack traces are only rendered for errors that are written and are cut off after a maximal depth.
+ * The number of remembered fingerprints is capped, the least recently written ones are forgotten first; repeats
+ * counted for a forgotten fingerprint are written as its summary before the next error. Instances are
+ * thread-safe.</p>
+ */
+class ErrorFingerprints {
+
+	static final long DEFAULT_WINDOW_MILLIS = 60_000;
+	static final int DEFAULT_KEY_FRAMES = 3;
+	static final int DEFAULT_MAX_DEPTH = 16;
+	static final int DEFAULT_MAX_FINGERPRINTS = 256;
+
+	private final long windowMillis;
+	private final int keyFrames;
+	private final int maxDepth;
+	private final int maxFingerprints;
+
+	// guarded by this; in order of the last written occurrence, a fingerprint is re-inserted whenever it is written,
+	// so counting a repeat does not keep it from being forgotten
+	private final Map<Fingerprint, Occurrences> occurrences = new LinkedHashMap<>();
+
+	ErrorFingerprints() {
+		this(DEFAULT_WINDOW_MILLIS, DEFAULT_KEY_FRAMES, DEFAULT_MAX_DEPTH, DEFAULT_MAX_FINGERPRINTS);
+	}
+
+	/**
+	 * @param windowMillis - time in milliseconds after a written error in which repeats are only counted
+	 * @param keyFrames - number of topmost stack frames that are part of the fingerprint
+	 * @param maxDepth - number of stack frames that are rendered at most
+	 * @param maxFingerprints - number of fingerprints that are remembered at most
+	 */
+	ErrorFingerprints(long windowMillis, int keyFrames, int maxDepth, int maxFingerprints) {
+		if(windowMillis < 0 || keyFrames < 0 || maxDepth < 0 || maxFingerprints < 1) {
+			throw new IllegalArgumentException("Invalid fingerprint settings: window " + windowMillis + "ms, " + keyFrames + " key frames, depth "
+					+ maxDepth + ", " + maxFingerprints + " fingerprints.");
+		}
+		this.windowMillis = windowMillis;
+		this.keyFrames = keyFrames;
+		this.maxDepth = maxDepth;
+		this.maxFingerprints = maxFingerprints;
+	}
+
+	/**
+	 * Registers an occurrence of {@code error} and returns the entries that have to be written for it: nothing if it
+	 * is a repeat within the window, otherwise the summaries of the repeats counted before for it and for fingerprints
+	 * forgotten to make room for it (if any) and the rendered error.
+	 *
+	 * @param error - the occurred error
+	 * @param nowMillis - time of the occurrence in milliseconds since epoch
+	 * @return messages to be written in order; empty if the occurrence was only counted
+	 */
+	List<String> occurred(Throwable error, long nowMillis) {
+		Fingerprint fingerprint = new Fingerprint(error, keyFrames);
+		List<String> messages = new ArrayList<>(2);
+		synchronized(this) {
+			Occurrences seen = occurrences.get(fingerprint);
+			if(seen != null && nowMillis - seen.lastWrittenMillis < windowMillis) {
+				seen.suppressed++;
+				ClockMonitor.get().errorSuppressed();
+				return List.of();
+			}
+			if(seen == null) {
+				seen = new Occurrences();
+			} else {
+				occurrences.remove(fingerprint);
+				if(seen.suppressed > 0) {
+					messages.add(seen.summary(fingerprint));
+				}
+			}
+			seen.lastWrittenMillis = nowMillis;
+			seen.suppressed = 0;
+			occurrences.put(fingerprint, seen);
+			evictOldest(messages);
+		}
+
+		messages.add(render(error, maxDepth));
+		return messages;
+	}
+
+	/**
+	 * Returns the summaries of all repeats that were counted but not written yet and resets their counts.
+	 *
+	 * @return summaries to be written, e.g. before the log-file is closed
+	 */
+	synchronized List<String> drainSummaries() {
+		List<String> summaries = new ArrayList<>();
+		for(Map.Entry<Fingerprint, Occurrences> entry : occurrences.entrySet()) {
+			if(entry.getValue().suppressed > 0) {
+				summaries.add(entry.getValue().summary(entry.getKey()));
+				entry.getValue().suppressed = 0;
+			}
+		}
+		return summaries;
+	}
+
+	/**
+	 * Renders {@code error} with its message and at most {@code maxDepth} stack frames, like
+	 * {@code "java.io.IOException: message [frame, frame, ... 12 more]"}.
+	 *
+	 * @param error - error to be rendered
+	 * @param maxDepth - number of stack frames that are rendered at most
+	 * @return the rendered error
+	 */
+	static String render(Throwable error, int maxDepth) {
+		StackTraceElement[] frames = error.getStackTrace();
+		int depth = Math.min(frames.length, maxDepth);
+		StringBuilder builder = new StringBuilder(64 + depth * 64).append(error).append(" [");
+		for(int i = 0; i < depth; i++) {
+			if(i > 0) {
+				builder.append(", ");
+			}
+			builder.append(frames[i]);
+		}
+		if(frames.length > depth) {
+			builder.append(depth > 0 ? ", ... " : "... ").append(frames.length - depth).append(" more");
+		}
+		return builder.append(']').toString();
+	}
+
+	/**
+	 * Forgets the least recently written fingerprints above the cap and adds the summaries of their pending repeats
+	 * to {@code summaries}.
+	 */
+	private void evictOldest(List<String> summaries) {
+		Iterator<Map.Entry<Fingerprint, Occurrences>> iterator = occurrences.entrySet().iterator();
+		while(occurrences.size() > maxFingerprints && iterator.hasNext()) {
+			Map.Entry<Fingerprint, Occurrences> eldest = iterator.next();
+			if(eldest.getValue().suppressed > 0) {
+				summaries.add(eldest.getValue().summary(eldest.getKey()));
+			}
+			iterator.remove();
+		}
+	}
+
+	private static final class Occurrences {
+		private long lastWrittenMillis;
+		private long suppressed;
+
+		private String summary(Fingerprint fingerprint) {
+			return "Previous error " + fingerprint + " seen " + suppressed + (suppressed == 1 ? " more time." : " more times.");
+		}
+	}
+
+	/**
+	 * Type and topmost stack frames of an error.
+	 */
+	private static final class Fingerprint {
+		private final Class<?> type;
+		private final StackTraceElement[] frames;
+		private final int hash;
+
+		private Fingerprint(Throwable error, int keyFrames) {
+			StackTraceElement[] stackTrace = error.getStackTrace();
+			this.type = error.getClass();
+			this.frames = Arrays.copyOf(stackTrace, Math.min(stackTrace.length, keyFrames));
+			this.hash = 31 * type.hashCode() + Arrays.hashCode(frames);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if(!(other instanceof Fingerprint)) {
+				return false;
+			}
+			Fingerprint fingerprint = (Fingerprint) other;
+			return hash == fingerprint.hash && type == fingerprint.type && Arrays.equals(frames, fingerprint.frames);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public String toString() {
+			return type.getName() + (frames.length > 0 ? " at " + frames[0] : "");
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package clock;
+
+/**
+ * <p>Decides when buffered log entries are flushed to the log-file. Entries are committed as a group if
+ * a number of records or bytes is buffered or if the oldest unflushed record is older than a given delay.</p>
+ *
+ * <p>Instances are not thread-safe on their own; the {@link Logger} only uses them while holding its lock.</p>
+ */
+class FlushPolicy {
+
+	static final int DEFAULT_MAX_RECORDS = 64;
+	static final int DEFAULT_MAX_BYTES = 8192;
+	static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+
+	private final int maxRecords;
+	private final int maxBytes;
+	private final long maxDelayMillis;
+
+	// pending state
+	private int pendingRecords = 0;
+	private long pendingBytes = 0;
+	private long firstPendingMillis = 0;
+
+	FlushPolicy() {
+		this(DEFAULT_MAX_RECORDS, DEFAULT_MAX_BYTES, DEFAULT_MAX_DELAY_MILLIS);
+	}
+
+	/**
+	 * @param maxRecords - number of buffered records that triggers a flush
+	 * @param maxBytes - number of buffered bytes that triggers a flush
+	 * @param maxDelayMillis - age of the oldest buffered record in milliseconds that triggers a flush
+	 */
+	FlushPolicy(int maxRecords, int maxBytes, long maxDelayMillis) {
+		if(maxRecords < 1 || maxBytes < 1 || maxDelayMillis < 1) {
+			throw new IllegalArgumentException("Flush thresholds have to be positive but are " + maxRecords + " records, "
+					+ maxBytes + " bytes and " + maxDelayMillis + "ms.");
+		}
+		this.maxRecords = maxRecords;
+		this.maxBytes = maxBytes;
+		this.maxDelayMillis = maxDelayMillis;
+	}
+
+	/**
+	 * Registers a record that was written to the buffer but not yet flushed.
+	 *
+	 * @param bytes - length of the written record in bytes
+	 * @param nowMillis - current time in milliseconds
+	 */
+	void recordWritten(int bytes, long nowMillis) {
+		if(pendingRecords == 0) {
+			firstPendingMillis = nowMillis;
+		}
+		pendingRecords++;
+		pendingBytes += bytes;
+	}
+
+	/**
+	 * @param nowMillis - current time in milliseconds
+	 * @return {@code true} if any of the thresholds is reached; {@code false} otherwise
+	 */
+	boolean isDue(long nowMillis) {
+		return pendingRecords > 0 && (pendingRecords >= maxRecords || pendingBytes >= maxBytes
+				|| nowMillis - firstPendingMillis >= maxDelayMillis);
+	}
+
+	/**
+	 * Registers a flush of all pending records.
+	 */
+	void flushed() {
+		pendingRecords = 0;
+		pendingBytes = 0;
+	}
+
+	long getMaxDelayMillis() {
+		return maxDelayMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "FlushPolicy [maxRecords=" + maxRecords + ", maxBytes=" + maxBytes + ", maxDelayMillis=" + maxDelayMillis + "]";
+	}
+}
@@ -0,0 +1,64 @@
+package clock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Splits a region of a file into chunks that start at the beginning of a line, so that the chunks can be mapped
+ * and scanned independently of each other. Only a few bytes around every boundary are read to find the lines.</p>
+ */
+final class LineChunks {
+
+	private static final int BOUNDARY_SCAN_SIZE = 256;
+
+	private LineChunks() {
+	}
+
+	/**
+	 * Splits {@code from} to {@code to} into chunks of about {@code chunkSize} bytes that end after a line separator.
+	 *
+	 * @param channel - channel of the file
+	 * @param from - offset of the first byte; has to be the start of a line
+	 * @param to - offset after the last byte
+	 * @param chunkSize - approximate size of a chunk in bytes; chunks are extended to the end of their last line
+	 * @return offsets of the chunks followed by {@code to}
+	 * @throws IOException if the file could not be read
+	 */
+	static long[] split(FileChannel channel, long from, long to, long chunkSize) throws IOException {
+		List<Long> boundaries = new ArrayList<>();
+		boundaries.add(from);
+		ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+		long position = from;
+		while(to - position > chunkSize) {
+			position = nextLine(channel, scan, position + chunkSize, to);
+			if(position < to) {
+				boundaries.add(position);
+			}
+		}
+		boundaries.add(to);
+		return boundaries.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	/**
+	 * @return offset after the next line separator at or after {@code position}; {@code to} if there is none
+	 */
+	private static long nextLine(FileChannel channel, ByteBuffer scan, long position, long to) throws IOException {
+		while(position < to) {
+			scan.clear();
+			int read = channel.read(scan, position);
+			if(read <= 0) {
+				break;
+			}
+			for(int i = 0; i < read; i++) {
+				if(scan.get(i) == '\n') {
+					return Math.min(position + i + 1, to);
+				}
+			}
+			position += read;
+		}
+		return to;
+	}
+}
@@ -1,8 +1,16 @@
 package clock;
 
+import java.nio.ByteBuffer;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 
 public class LocalTimeParser {
+
+	/**
+	 * Sentinel returned by the primitive parse methods for input that is no valid time.
+	 */
+	public static final int INVALID = -1;
+
 	public static LocalTime fromString(String toParse) {
 		if(toParse == null) {
 			throw new IllegalArgumentException("String to parse cannot be null.");
@@ -10,18 +18,132 @@ public class LocalTimeParser {
 		if(toParse.length() > 5) {
 			throw new IllegalArgumentException("String to parse cannot be longer than 5 characters but is " + toParse.length() + " characters long.");
 		}
-					
-		if(toParse.contains(":")) {
-			if(toParse.length() < 5) {
-				toParse = "0" + toParse;
+
+		int minuteOfDay = parseMinuteOfDay(toParse);
+		if(minuteOfDay == INVALID) {
+			throw new DateTimeParseException("Text '" + toParse + "' could not be parsed as a time.", toParse, 0);
+		}
+
+		return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+	}
+
+	/**
+	 * Parses a time of the form "hh:mm", "h:mm", "mm" or "m" into its minute of the day without allocating or
+	 * throwing. Accepts exactly the inputs {@link #fromString(String)} accepts.
+	 *
+	 * @param toParse - characters to parse
+	 * @return minute of the day between 0 and 1439; {@link #INVALID} if the input is no valid time
+	 */
+	public static int parseMinuteOfDay(CharSequence toParse) {
+		if(toParse == null) {
+			return INVALID;
+		}
+		int length = toParse.length();
+		switch(length) {
+			case 1: return minutes(0, digit(toParse.charAt(0)));
+			case 2: return minutes(0, twoDigits(toParse.charAt(0), toParse.charAt(1)));
+			case 4: return toParse.charAt(1) == ':' ? minutes(digit(toParse.charAt(0)), twoDigits(toParse.charAt(2), toParse.charAt(3))) : INVALID;
+			case 5: return toParse.charAt(2) == ':' ? minutes(twoDigits(toParse.charAt(0), toParse.charAt(1)), twoDigits(toParse.charAt(3), toParse.charAt(4))) : INVALID;
+			default: return INVALID;
+		}
+	}
+
+	/**
+	 * Parses the ASCII bytes {@code bytes[offset]} to {@code bytes[offset + length - 1]} like {@link #parseMinuteOfDay(CharSequence)}.
+	 *
+	 * @param bytes - array containing the characters to parse
+	 * @param offset - index of the first character
+	 * @param length - number of characters
+	 * @return minute of the day between 0 and 1439; {@link #INVALID} if the input is no valid time
+	 */
+	public static int parseMinuteOfDay(byte[] bytes, int offset, int length) {
+		switch(length) {
+			case 1: return minutes(0, digit(bytes[offset]));
+			case 2: return minutes(0, twoDigits(bytes[offset], bytes[offset + 1]));
+			case 4: return bytes[offset + 1] == ':' ? minutes(digit(bytes[offset]), twoDigits(bytes[offset + 2], bytes[offset + 3])) : INVALID;
+			case 5: return bytes[offset + 2] == ':' ? minutes(twoDigits(bytes[offset], bytes[offset + 1]), twoDigits(bytes[offset + 3], bytes[offset + 4])) : INVALID;
+			default: return INVALID;
+		}
+	}
+
+	/**
+	 * Parses the ASCII bytes at the absolute indices {@code offset} to {@code offset + length - 1} of {@code bytes}
+	 * like {@link #parseMinuteOfDay(CharSequence)}, e.g. straight from a memory-mapped file. The position of the
+	 * buffer is not changed.
+	 *
+	 * @param bytes - buffer containing the characters to parse
+	 * @param offset - index of the first character
+	 * @param length - number of characters
+	 * @return minute of the day between 0 and 1439; {@link #INVALID} if the input is no valid time
+	 */
+	public static int parseMinuteOfDay(ByteBuffer bytes, int offset, int length) {
+		switch(length) {
+			case 1: return minutes(0, digit(bytes.get(offset)));
+			case 2: return minutes(0, twoDigits(bytes.get(offset), bytes.get(offset + 1)));
+			case 4: return bytes.get(offset + 1) == ':' ? minutes(digit(bytes.get(offset)), twoDigits(bytes.get(offset + 2), bytes.get(offset + 3))) : INVALID;
+			case 5: return bytes.get(offset + 2) == ':' ? minutes(twoDigits(bytes.get(offset), bytes.get(offset + 1)), twoDigits(bytes.get(offset + 3), bytes.get(offset + 4))) : INVALID;
+			default: return INVALID;
+		}
+	}
+
+	/**
+	 * Parses a whole column of times in one call.
+	 *
+	 * @param column - times to parse
+	 * @param minutesOfDay - receives the minute of the day or {@link #INVALID} for every time; at least as long as {@code column}
+	 * @return number of invalid times in the column
+	 */
+	public static int parseColumn(CharSequence[] column, int[] minutesOfDay) {
+		int invalid = 0;
+		for(int i = 0; i < column.length; i++) {
+			int minuteOfDay = parseMinuteOfDay(column[i]);
+			minutesOfDay[i] = minuteOfDay;
+			if(minuteOfDay == INVALID) {
+				invalid++;
 			}
-		} else {
-			if(toParse.length() < 2) {
-				toParse = "0" + toParse;
+		}
+		return invalid;
+	}
+
+	/**
+	 * Parses a column of line separated ASCII times, e.g. a file read into memory. Lines may end with "\n" or "\r\n";
+	 * a missing line separator after the last time is allowed.
+	 *
+	 * @param bytes - array containing the lines
+	 * @param from - index of the first byte
+	 * @param to - index after the last byte
+	 * @param minutesOfDay - receives the minute of the day or {@link #INVALID} for every line
+	 * @return number of lines parsed; parsing stops early if {@code minutesOfDay} is full
+	 */
+	public static int parseLines(byte[] bytes, int from, int to, int[] minutesOfDay) {
+		int count = 0;
+		int start = from;
+		while(start < to && count < minutesOfDay.length) {
+			int end = start;
+			while(end < to && bytes[end] != '\n') {
+				end++;
 			}
-			toParse = "00:" + toParse;
+			int valueEnd = end > start && bytes[end - 1] == '\r' ? end - 1 : end;
+			minutesOfDay[count++] = parseMinuteOfDay(bytes, start, valueEnd - start);
+			start = end + 1;
 		}
-		
-		return LocalTime.parse(toParse);
+		return count;
+	}
+
+	private static int minutes(int hours, int minutes) {
+		if(hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+			return INVALID;
+		}
+		return hours * 60 + minutes;
+	}
+
+	private static int twoDigits(int tens, int ones) {
+		int high = digit(tens);
+		int low = digit(ones);
+		return high < 0 || low < 0 ? INVALID : high * 10 + low;
+	}
+
+	private static int digit(int c) {
+		return c >= '0' && c <= '9' ? c - '0' : INVALID;
 	}
 }
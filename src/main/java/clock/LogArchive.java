@@ -0,0 +1,474 @@
+package clock;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>Block-compressed archive of a finished log-file, e.g. {@code clock_2024.logz} for {@code clock_2024.log}.
+ * The entries are packed into blocks of whole lines of about {@value #DEFAULT_BLOCK_SIZE} bytes that are deflated
+ * independently, followed by an index with a record of {@value #ENTRY_SIZE} bytes per block:</p>
+ * <ul>
+ * 	<li>{@code long} offset of the compressed block</li>
+ * 	<li>{@code int} compressed and uncompressed length</li>
+ * 	<li>{@code int} first and last epoch day of the entries in the block</li>
+ * 	<li>{@code int} CRC-32 of the uncompressed block</li>
+ * </ul>
+ * <p>A footer of {@value #FOOTER_SIZE} bytes holds the offset of the index, the uncompressed length, the number of
+ * blocks and a magic number. A reader therefore only reads footer and index and then decompresses just the blocks
+ * of the dates it needs; {@link #inputStream()} decompresses all blocks in order for sequential readers.</p>
+ *
+ * <p>{@link #archive(File)} writes the archive to a temporary file, checks every block and only then replaces the
+ * log-file, so an interrupted archival never loses entries. Writers hold a shared lock on the log-file while it is
+ * open and the archival needs the exclusive one, so a log-file that is still written is never archived and two
+ * archivals of the same log-file never overlap. Opened archives are thread-safe.</p>
+ */
+class LogArchive implements Closeable {
+
+	static final String EXTENSION = ".logz";
+	static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+	static final int ENTRY_SIZE = 28;
+	static final int FOOTER_SIZE = 24;
+
+	/**
+	 * Position of the byte that writers lock while they have a log-file open. It lies far behind any entry, so the
+	 * lock never blocks reading or writing entries on platforms with mandatory locks.
+	 */
+	static final long WRITER_LOCK_POSITION = Long.MAX_VALUE - 1;
+
+	private static final int MAGIC = 0x434C4B5A; // "CLKZ"
+	private static final int READ_SIZE = 64 * 1024;
+
+	private final FileChannel channel;
+	private final long[] offsets;
+	private final int[] compressedLengths;
+	private final int[] lengths;
+	private final int[] firstDays;
+	private final int[] lastDays;
+	private final int[] checksums;
+	private final long length;
+
+	/**
+	 * Opens the archive at {@code file} and reads its index.
+	 *
+	 * @param file - file of the archive
+	 * @throws IOException if the file could not be read or is no valid archive
+	 */
+	LogArchive(File file) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			ByteBuffer footer = readFully(size - FOOTER_SIZE, FOOTER_SIZE, file);
+			long indexOffset = footer.getLong();
+			this.length = footer.getLong();
+			int blocks = footer.getInt();
+			if(footer.getInt() != MAGIC || blocks < 0 || indexOffset < 0 || indexOffset + (long) blocks * ENTRY_SIZE != size - FOOTER_SIZE) {
+				throw new IOException("File \"" + file + "\" is no valid log archive.");
+			}
+
+			ByteBuffer index = readFully(indexOffset, blocks * ENTRY_SIZE, file);
+			offsets = new long[blocks];
+			compressedLengths = new int[blocks];
+			lengths = new int[blocks];
+			firstDays = new int[blocks];
+			lastDays = new int[blocks];
+			checksums = new int[blocks];
+			for(int i = 0; i < blocks; i++) {
+				offsets[i] = index.getLong();
+				compressedLengths[i] = index.getInt();
+				lengths[i] = index.getInt();
+				firstDays[i] = index.getInt();
+				lastDays[i] = index.getInt();
+				checksums[i] = index.getInt();
+			}
+		} catch(IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the archive that belongs to {@code logfile}, e.g. {@code clock_2024.logz} for {@code clock_2024.log}.
+	 *
+	 * @param logfile - log-file the archive belongs to
+	 * @return the archive file
+	 */
+	static File archiveFile(File logfile) {
+		String name = logfile.getName();
+		int extension = name.lastIndexOf('.');
+		return new File(logfile.getParentFile(), (extension < 0 ? name : name.substring(0, extension)) + EXTENSION);
+	}
+
+	/**
+	 * Marks the log-file of {@code channel} as written until the channel is closed, so it is not archived
+	 * meanwhile.
+	 *
+	 * @param channel - channel of the log-file that is opened for reading
+	 * @throws IOException if the lock could not be requested
+	 */
+	static void lockForWriting(FileChannel channel) throws IOException {
+		try {
+			// fails only while an archival holds the exclusive lock, which ends without touching a written log-file
+			channel.tryLock(WRITER_LOCK_POSITION, 1, true);
+		} catch(OverlappingFileLockException e) {
+			// this process already writes the log-file
+		}
+	}
+
+	/**
+	 * Checks whether a writer holds the log-file open, see {@link #lockForWriting(FileChannel)}.
+	 *
+	 * @param logfile - log-file to check
+	 * @return {@code true} if the log-file is written by this or another process
+	 * @throws IOException if the lock could not be requested
+	 */
+	static boolean isWritten(File logfile) throws IOException {
+		try(FileChannel locking = FileChannel.open(logfile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return tryLock(locking) == null;
+		} catch(NoSuchFileException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Compresses {@code logfile} into its {@link #archiveFile(File) archive} and deletes the log-file and its
+	 * {@link LogIndex} afterwards. The archive is checked before the log-file is deleted. A log-file that is still
+	 * written, being archived by another process or already gone is skipped.
+	 *
+	 * @param logfile - finished log-file that is no longer written
+	 * @return size of the archive in bytes or -1 if the log-file was skipped
+	 * @throws IOException if the log-file could not be read or the archive could not be written
+	 */
+	static long archive(File logfile) throws IOException {
+		File archive = archiveFile(logfile);
+		File directory = archive.getAbsoluteFile().getParentFile();
+		try(FileChannel locking = FileChannel.open(logfile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			if(tryLock(locking) == null || !logfile.exists()) {
+				return -1;
+			}
+			// leftovers of archivals interrupted by the end of their process, only the holder of the lock writes them
+			String prefix = archive.getName() + ".";
+			String[] names = directory.list();
+			for(String name : names == null ? new String[0] : names) {
+				if(name.startsWith(prefix) && name.endsWith(".tmp")) {
+					Files.deleteIfExists(new File(directory, name).toPath());
+				}
+			}
+
+			File temporary = Files.createTempFile(directory.toPath(), prefix, ".tmp").toFile();
+			try {
+				long length = compress(logfile, temporary, DEFAULT_BLOCK_SIZE);
+				try(LogArchive written = new LogArchive(temporary)) {
+					if(written.length() != length) {
+						throw new IOException("Archive of \"" + logfile + "\" holds " + written.length() + " instead of " + length + " bytes.");
+					}
+					for(int i = 0; i < written.blocks(); i++) {
+						written.block(i);
+					}
+				}
+				Files.move(temporary.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporary.toPath());
+			}
+			// deleted while still locked, so a waiting archival finds the log-file gone
+			Files.delete(logfile.toPath());
+			Files.deleteIfExists(LogIndex.indexFile(logfile).toPath());
+		} catch(NoSuchFileException e) {
+			return -1;
+		}
+		return archive.length();
+	}
+
+	/**
+	 * @return exclusive lock of the log-file or {@code null} if it is written or archived by this or another process
+	 */
+	private static FileLock tryLock(FileChannel channel) throws IOException {
+		try {
+			return channel.tryLock(WRITER_LOCK_POSITION, 1, false);
+		} catch(OverlappingFileLockException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Compresses the entries of {@code logfile} into blocks of whole lines. Zero bytes at the start of a line mark
+	 * the unwritten rest of a {@link MappedRollingLog} segment and end the log-file.
+	 *
+	 * @param logfile - log-file to be compressed
+	 * @param archive - file the archive is written to, replacing its content
+	 * @param blockSize - approximate uncompressed size of a block; blocks are extended to the end of their last line
+	 * @return number of uncompressed bytes in the archive
+	 * @throws IOException if the log-file could not be read or the archive could not be written
+	 */
+	static long compress(File logfile, File archive, int blockSize) throws IOException {
+		if(blockSize < 1) {
+			throw new IllegalArgumentException("Block size has to be positive but is " + blockSize + ".");
+		}
+		try(InputStream in = Files.newInputStream(logfile.toPath());
+				FileChannel out = FileChannel.open(archive.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			BlockWriter writer = new BlockWriter(out);
+			byte[] block = new byte[blockSize + READ_SIZE];
+			int filled = 0;
+			int lineStart = 0;
+			boolean end = false;
+			int read;
+			while((read = in.read(block, filled, Math.min(READ_SIZE, block.length - filled))) >= 0) {
+				int limit = filled + read;
+				for(int i = filled; i < limit; i++) {
+					if(block[i] == '\n') {
+						lineStart = i + 1;
+					} else if(block[i] == 0 && i == lineStart) {
+						// unwritten rest of a memory-mapped segment
+						filled = lineStart;
+						end = true;
+						break;
+					}
+				}
+				if(end) {
+					break;
+				}
+				filled = limit;
+				if(lineStart >= blockSize) {
+					writer.write(block, lineStart);
+					System.arraycopy(block, lineStart, block, 0, filled - lineStart);
+					filled -= lineStart;
+					lineStart = 0;
+				} else if(filled == block.length) {
+					// a single line longer than a block
+					block = Arrays.copyOf(block, block.length * 2);
+				}
+			}
+			if(filled > 0) {
+				writer.write(block, filled);
+			}
+			return writer.finish();
+		}
+	}
+
+	/**
+	 * @return number of blocks
+	 */
+	int blocks() {
+		return offsets.length;
+	}
+
+	/**
+	 * @return number of uncompressed bytes
+	 */
+	long length() {
+		return length;
+	}
+
+	/**
+	 * @return number of uncompressed bytes of {@code block}
+	 */
+	int length(int block) {
+		return lengths[block];
+	}
+
+	/**
+	 * Returns whether {@code block} holds entries of the date range. Blocks without any dated entry always do.
+	 *
+	 * @param block - index of the block
+	 * @param from - first date; {@code null} for no lower bound
+	 * @param to - last date; {@code null} for no upper bound
+	 * @return {@code true} if the block has to be read for the date range
+	 */
+	boolean overlaps(int block, LocalDate from, LocalDate to) {
+		return (from == null || lastDays[block] >= from.toEpochDay()) && (to == null || firstDays[block] <= to.toEpochDay());
+	}
+
+	/**
+	 * Reads and decompresses {@code block}.
+	 *
+	 * @param block - index of the block
+	 * @return the uncompressed lines of the block
+	 * @throws IOException if the block could not be read or is corrupt
+	 */
+	byte[] block(int block) throws IOException {
+		ByteBuffer compressed = readFully(offsets[block], compressedLengths[block], null);
+		byte[] bytes = new byte[lengths[block]];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(compressed);
+			int inflated = 0;
+			while(inflated < bytes.length && !inflater.finished()) {
+				int count = inflater.inflate(bytes, inflated, bytes.length - inflated);
+				if(count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				inflated += count;
+			}
+			if(inflated != bytes.length) {
+				throw new IOException("Block " + block + " of the log archive is truncated.");
+			}
+		} catch(DataFormatException e) {
+			throw new IOException("Block " + block + " of the log archive is corrupt.", e);
+		} finally {
+			inflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		if((int) crc.getValue() != checksums[block]) {
+			throw new IOException("Block " + block + " of the log archive has a wrong checksum.");
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return stream of all uncompressed entries in order, decompressing one block at a time; closing it closes the archive
+	 */
+	InputStream inputStream() {
+		return new InputStream() {
+			private byte[] current = new byte[0];
+			private int position = 0;
+			private int next = 0;
+
+			@Override
+			public int read() throws IOException {
+				byte[] one = new byte[1];
+				return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				while(position == current.length) {
+					if(next == blocks()) {
+						return -1;
+					}
+					current = block(next++);
+					position = 0;
+				}
+				int count = Math.min(len, current.length - position);
+				System.arraycopy(current, position, b, off, count);
+				position += count;
+				return count;
+			}
+
+			@Override
+			public void close() throws IOException {
+				LogArchive.this.close();
+			}
+		};
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private ByteBuffer readFully(long position, int count, File file) throws IOException {
+		if(position < 0) {
+			throw new IOException("File \"" + file + "\" is no valid log archive.");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(count);
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Log archive ends unexpectedly at " + (position + buffer.position()) + ".");
+			}
+		}
+		return buffer.flip();
+	}
+
+	/**
+	 * Deflates blocks into the archive and collects their index records.
+	 */
+	private static final class BlockWriter {
+		private final FileChannel out;
+		private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		private final CRC32 crc = new CRC32();
+		private ByteBuffer index = ByteBuffer.allocate(64 * ENTRY_SIZE);
+		private byte[] compressed = new byte[DEFAULT_BLOCK_SIZE];
+		private long offset = 0;
+		private long length = 0;
+		private int blocks = 0;
+
+		private BlockWriter(FileChannel out) {
+			this.out = out;
+		}
+
+		private void write(byte[] block, int count) throws IOException {
+			deflater.reset();
+			deflater.setInput(block, 0, count);
+			deflater.finish();
+			int size = 0;
+			while(!deflater.finished()) {
+				if(size == compressed.length) {
+					compressed = Arrays.copyOf(compressed, compressed.length * 2);
+				}
+				size += deflater.deflate(compressed, size, compressed.length - size);
+			}
+			crc.reset();
+			crc.update(block, 0, count);
+
+			if(index.remaining() < ENTRY_SIZE) {
+				index = ByteBuffer.allocate(index.capacity() * 2).put(index.flip());
+			}
+			int[] days = days(block, count);
+			index.putLong(offset).putInt(size).putInt(count).putInt(days[0]).putInt(days[1]).putInt((int) crc.getValue());
+			writeFully(ByteBuffer.wrap(compressed, 0, size));
+			offset += size;
+			length += count;
+			blocks++;
+		}
+
+		/**
+		 * @return the uncompressed length after writing index and footer
+		 */
+		private long finish() throws IOException {
+			deflater.end();
+			writeFully(index.flip());
+			ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+			footer.putLong(offset).putLong(length).putInt(blocks).putInt(MAGIC);
+			writeFully(footer.flip());
+			return length;
+		}
+
+		private void writeFully(ByteBuffer buffer) throws IOException {
+			while(buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+		}
+
+		/**
+		 * @return first and last epoch day of the lines of the block; the whole range if none is dated
+		 */
+		private static int[] days(byte[] block, int count) {
+			long first = Long.MAX_VALUE;
+			long last = Long.MIN_VALUE;
+			int lineStart = 0;
+			while(lineStart < count) {
+				if(count - lineStart >= LogIndex.DATE_LENGTH) {
+					long day = LogIndex.epochDay(block, lineStart);
+					if(day != Long.MIN_VALUE) {
+						first = Math.min(first, day);
+						last = Math.max(last, day);
+					}
+				}
+				while(lineStart < count && block[lineStart] != '\n') {
+					lineStart++;
+				}
+				lineStart++;
+			}
+			if(first > last) {
+				return new int[] {Integer.MIN_VALUE, Integer.MAX_VALUE};
+			}
+			return new int[] {(int) first, (int) last};
+		}
+	}
+}
@@ -0,0 +1,295 @@
+package clock;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import clock.Logger.Level;
+
+/**
+ * <p>Encodes log entries of the form {@code "yyyy-MM-dd HH:mm:ss | LEVEL   | message"} directly into a reusable
+ * direct {@link ByteBuffer} that is drained through a {@link WritableByteChannel} like a file channel.</p>
+ *
+ * <p>The timestamp is cached and only rebuilt when the second changes, the level columns are encoded once at
+ * construction and messages are encoded to UTF-8 char by char. Encoding an entry therefore does not allocate.
+ * Instances are not thread-safe; the {@link Logger} only uses them while holding its lock.</p>
+ *
+ * <p>With atomic records, which is the mode for a log-file shared by several processes, an entry never spans two
+ * writes: the buffer is drained before an entry that might not fit, and messages are cut off so that an entry is
+ * at most as long as the buffer. Every write to a channel opened with {@code APPEND} then contains complete
+ * entries only, so entries of concurrent writers cannot interleave without any file lock.</p>
+ */
+class LogEncoder {
+
+	static final int DEFAULT_CAPACITY = 8192;
+
+	static final int TIMESTAMP_LENGTH = 19;
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+	private static final Level LONGEST_LEVEL = Level.WARNING;
+	private static final byte[] TRUNCATION_MARK = " [truncated]".getBytes(StandardCharsets.US_ASCII);
+
+	private final ByteBuffer buffer;
+	private final ZoneId zone;
+	private final byte[][] levelColumns;
+	private final byte[] timestamp = new byte[TIMESTAMP_LENGTH];
+	private final boolean atomicRecords;
+
+	private long cachedSecond = Long.MIN_VALUE;
+	private long cachedDay = Long.MIN_VALUE;
+	private long cachedOffsetValidUntil = Long.MIN_VALUE;
+	private int offsetSeconds = 0;
+
+	LogEncoder() {
+		this(DEFAULT_CAPACITY, ZoneId.systemDefault(), false);
+	}
+
+	/**
+	 * @param atomicRecords - {@code true} if an entry must never span two writes
+	 */
+	LogEncoder(boolean atomicRecords) {
+		this(DEFAULT_CAPACITY, ZoneId.systemDefault(), atomicRecords);
+	}
+
+	/**
+	 * @param capacity - size of the direct buffer in bytes; has to hold at least the timestamp and level columns
+	 * @param zone - time zone used for the timestamps
+	 * @param atomicRecords - {@code true} if an entry must never span two writes; entries are bounded to {@code capacity} bytes
+	 */
+	LogEncoder(int capacity, ZoneId zone, boolean atomicRecords) {
+		if(capacity < 64) {
+			throw new IllegalArgumentException("Capacity of the encoding buffer has to be at least 64 bytes but is " + capacity + ".");
+		}
+		this.buffer = ByteBuffer.allocateDirect(capacity);
+		this.zone = zone;
+		this.atomicRecords = atomicRecords;
+
+		Level[] levels = Level.values();
+		this.levelColumns = new byte[levels.length][];
+		for(Level level : levels) {
+			levelColumns[level.ordinal()] = levelColumn(level);
+		}
+	}
+
+	/**
+	 * @param level - level of an entry
+	 * @return the encoded level column between timestamp and message, e.g. {@code " | INFO    | "}
+	 */
+	static byte[] levelColumn(Level level) {
+		String padding = " ".repeat(Math.max(0, LONGEST_LEVEL.name().length() - level.name().length()));
+		return (" | " + level.name() + padding + " | ").getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Encodes one entry including the line separator into the buffer. If the buffer runs full it is drained
+	 * into {@code channel}.
+	 *
+	 * @param timestampMillis - creation time of the entry in milliseconds since epoch
+	 * @param level - level of the entry
+	 * @param message - message of the entry
+	 * @param channel - channel the buffer is drained into if it runs full
+	 * @return number of bytes the entry was encoded to
+	 * @throws IOException if draining the buffer failed
+	 */
+	int encode(long timestampMillis, Level level, CharSequence message, WritableByteChannel channel) throws IOException {
+		updateTimestamp(Math.floorDiv(timestampMillis, 1000));
+		if(atomicRecords) {
+			return encodeAtomic(level, message == null ? "null" : message, channel);
+		}
+
+		int written = put(timestamp, channel);
+		written += put(levelColumns[level.ordinal()], channel);
+		written += putUtf8(message == null ? "null" : message, channel);
+		written += put(LINE_SEPARATOR, channel);
+		return written;
+	}
+
+	/**
+	 * Encodes an entry so that it lies completely in the buffer, draining the buffer before if the entry might not fit.
+	 */
+	private int encodeAtomic(Level level, CharSequence message, WritableByteChannel channel) throws IOException {
+		byte[] levelColumn = levelColumns[level.ordinal()];
+		int messageLength = encodedLength(message);
+		long length = (long) TIMESTAMP_LENGTH + levelColumn.length + messageLength + LINE_SEPARATOR.length;
+		if(buffer.remaining() < length && buffer.position() > 0) {
+			drain(channel);
+		}
+
+		int start = buffer.position();
+		buffer.put(timestamp);
+		buffer.put(levelColumn);
+		if(buffer.remaining() - LINE_SEPARATOR.length >= messageLength) {
+			putUtf8Bounded(message, messageLength);
+		} else {
+			putUtf8Bounded(message, buffer.remaining() - LINE_SEPARATOR.length - TRUNCATION_MARK.length);
+			buffer.put(TRUNCATION_MARK);
+		}
+		buffer.put(LINE_SEPARATOR);
+		return buffer.position() - start;
+	}
+
+	/**
+	 * Encodes as many whole characters of {@code message} as fit into {@code maxBytes} bytes.
+	 */
+	private void putUtf8Bounded(CharSequence message, int maxBytes) {
+		int end = buffer.position() + maxBytes;
+		int length = message.length();
+		for(int i = 0; i < length; i++) {
+			if(end - buffer.position() < encodedLength(message, i)) {
+				return;
+			}
+			i = putChar(message, i);
+		}
+	}
+
+	/**
+	 * Writes all encoded bytes to {@code channel}.
+	 *
+	 * @param channel - channel to write to
+	 * @throws IOException if writing failed
+	 */
+	void drain(WritableByteChannel channel) throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * @return number of encoded bytes that were not yet drained
+	 */
+	int pending() {
+		return buffer.position();
+	}
+
+	private int put(byte[] bytes, WritableByteChannel channel) throws IOException {
+		if(buffer.remaining() < bytes.length) {
+			drain(channel);
+		}
+		buffer.put(bytes);
+		return bytes.length;
+	}
+
+	private int putUtf8(CharSequence message, WritableByteChannel channel) throws IOException {
+		int written = 0;
+		int length = message.length();
+		for(int i = 0; i < length; i++) {
+			if(buffer.remaining() < 4) {
+				drain(channel);
+			}
+			int position = buffer.position();
+			i = putChar(message, i);
+			written += buffer.position() - position;
+		}
+		return written;
+	}
+
+	/**
+	 * Encodes the character at {@code index} to UTF-8; a surrogate pair is encoded as one code point.
+	 *
+	 * @return index of the last character that was encoded
+	 */
+	private int putChar(CharSequence message, int index) {
+		char c = message.charAt(index);
+		if(c == 0) {
+			// zero bytes mark the unwritten part of a MappedRollingLog segment
+			buffer.put((byte) '?');
+		} else if(c < 0x80) {
+			buffer.put((byte) c);
+		} else if(c < 0x800) {
+			buffer.put((byte) (0xC0 | (c >> 6)));
+			buffer.put((byte) (0x80 | (c & 0x3F)));
+		} else if(isSurrogatePair(message, index)) {
+			int codePoint = Character.toCodePoint(c, message.charAt(++index));
+			buffer.put((byte) (0xF0 | (codePoint >> 18)));
+			buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+			buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+			buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+		} else if(Character.isSurrogate(c)) {
+			buffer.put((byte) '?');
+		} else {
+			buffer.put((byte) (0xE0 | (c >> 12)));
+			buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+			buffer.put((byte) (0x80 | (c & 0x3F)));
+		}
+		return index;
+	}
+
+	/**
+	 * @return number of bytes {@link #putChar(CharSequence, int)} writes for the character at {@code index}
+	 */
+	private static int encodedLength(CharSequence message, int index) {
+		char c = message.charAt(index);
+		if(c < 0x80) {
+			return 1;
+		} else if(c < 0x800) {
+			return 2;
+		} else if(isSurrogatePair(message, index)) {
+			return 4;
+		}
+		return Character.isSurrogate(c) ? 1 : 3;
+	}
+
+	private static int encodedLength(CharSequence message) {
+		int bytes = 0;
+		int length = message.length();
+		for(int i = 0; i < length; i++) {
+			int encoded = encodedLength(message, i);
+			bytes += encoded;
+			if(encoded == 4) {
+				i++;
+			}
+		}
+		return bytes;
+	}
+
+	private static boolean isSurrogatePair(CharSequence message, int index) {
+		return Character.isHighSurrogate(message.charAt(index)) && index + 1 < message.length() && Character.isLowSurrogate(message.charAt(index + 1));
+	}
+
+	/**
+	 * Rebuilds the cached timestamp if {@code epochSecond} differs from the cached one. The zone offset is only
+	 * looked up again at the next full hour so offset transitions are picked up.
+	 */
+	private void updateTimestamp(long epochSecond) {
+		if(epochSecond == cachedSecond) {
+			return;
+		}
+		if(epochSecond >= cachedOffsetValidUntil || epochSecond < cachedSecond) {
+			offsetSeconds = zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+			cachedOffsetValidUntil = (Math.floorDiv(epochSecond, 3600) + 1) * 3600;
+		}
+		cachedSecond = epochSecond;
+
+		long localSecond = epochSecond + offsetSeconds;
+		long epochDay = Math.floorDiv(localSecond, 86400);
+		int secondOfDay = Math.floorMod(localSecond, 86400);
+		if(epochDay != cachedDay) {
+			LocalDateTime date = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.ofTotalSeconds(offsetSeconds));
+			cachedDay = epochDay;
+			putDigits(date.getYear(), 0, 4);
+			timestamp[4] = '-';
+			putDigits(date.getMonthValue(), 5, 2);
+			timestamp[7] = '-';
+			putDigits(date.getDayOfMonth(), 8, 2);
+			timestamp[10] = ' ';
+			timestamp[13] = ':';
+			timestamp[16] = ':';
+		}
+		putDigits(secondOfDay / 3600, 11, 2);
+		putDigits((secondOfDay / 60) % 60, 14, 2);
+		putDigits(secondOfDay % 60, 17, 2);
+	}
+
+	private void putDigits(int value, int offset, int digits) {
+		for(int i = offset + digits - 1; i >= offset; i--) {
+			timestamp[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Sparse index from dates to offsets of a log-file that is stored next to it. For every date the index holds
+ * the offset of the first line of that date, which lets a query skip straight to the lines of its date range.
+ * The file starts with a header of {@value #HEADER_SIZE} bytes holding a magic number, the number of indexed bytes
+ * of the log-file and a checksum of its first bytes, followed by a record of {@value #RECORD_SIZE} bytes per date:</p>
+ * <ul>
+ * 	<li>{@code int} epoch day</li>
+ * 	<li>{@code long} offset of the first line of that day</li>
+ * </ul>
+ * <p>Only dates later than every date before them are recorded, so the records are in chronological order even
+ * if concurrent writers interleave their entries around midnight. Since log-files only grow, opening the index only
+ * scans the bytes appended since the last time; a log-file that was cleared or replaced is indexed again.</p>
+ */
+class LogIndex {
+
+	static final int HEADER_SIZE = 24;
+	static final int RECORD_SIZE = 12;
+
+	private static final int MAGIC = 0x434C4B49; // "CLKI"
+	private static final int CHECKSUM_LENGTH = 64;
+	static final int DATE_LENGTH = 10;
+	private static final long SCAN_WINDOW = 64L * 1024 * 1024;
+
+	private int[] days = new int[64];
+	private long[] offsets = new long[64];
+	private int size = 0;
+	private long indexedLength = 0;
+	private int checksum = 0;
+
+	private LogIndex() {
+	}
+
+	/**
+	 * Returns the index file that belongs to {@code logfile}, e.g. {@code clock_2024.idx} for {@code clock_2024.log}.
+	 *
+	 * @param logfile - log-file the index belongs to
+	 * @return the index file
+	 */
+	static File indexFile(File logfile) {
+		String name = logfile.getName();
+		int extension = name.lastIndexOf('.');
+		return new File(logfile.getParentFile(), (extension < 0 ? name : name.substring(0, extension)) + ".idx");
+	}
+
+	/**
+	 * Reads the index of {@code logfile}, extends it by the lines appended since it was written and stores it again.
+	 * A missing or invalid index is built from scratch. The index is only a cache of the log-file, so failing to
+	 * store it does not fail the opening.
+	 *
+	 * @param logfile - indexed log-file
+	 * @return the index covering every complete line of {@code logfile}
+	 * @throws IOException if the log-file could not be read
+	 */
+	static LogIndex open(File logfile) throws IOException {
+		File file = indexFile(logfile);
+		LogIndex index = file.exists() ? read(file) : null;
+		try(FileChannel channel = FileChannel.open(logfile.toPath(), StandardOpenOption.READ)) {
+			long length = channel.size();
+			if(index == null || length < index.indexedLength || index.checksum != checksum(channel, index.indexedLength)) {
+				index = new LogIndex();
+			}
+			if(index.indexedLength == length) {
+				return index;
+			}
+			index.scan(channel, length);
+		}
+		try {
+			index.write(file);
+		} catch(IOException e) {
+			// the index is rebuilt the next time
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the offset of the first line that is dated on or after {@code date}, the indexed length if there is none.
+	 *
+	 * @param date - the date
+	 * @return offset of a line start in the log-file
+	 */
+	long offsetOf(LocalDate date) {
+		long day = date.toEpochDay();
+		int low = 0;
+		int high = size;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(days[middle] < day) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low < size ? offsets[low] : indexedLength;
+	}
+
+	/**
+	 * @return number of bytes of the log-file that are covered by the index; always the end of a line
+	 */
+	long getIndexedLength() {
+		return indexedLength;
+	}
+
+	/**
+	 * @return number of indexed dates
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Scans the log-file from the indexed length up to the end of the last complete line before {@code length}.
+	 */
+	private void scan(FileChannel channel, long length) throws IOException {
+		byte[] date = new byte[DATE_LENGTH];
+		int column = 0;
+		long lineStart = indexedLength;
+		long lastDay = size > 0 ? days[size - 1] : Long.MIN_VALUE;
+
+		for(long window = indexedLength; window < length; window += SCAN_WINDOW) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, window, Math.min(SCAN_WINDOW, length - window));
+			int limit = mapped.limit();
+			for(int i = 0; i < limit; i++) {
+				byte b = mapped.get(i);
+				if(b == '\n') {
+					indexedLength = window + i + 1;
+					lineStart = indexedLength;
+					column = 0;
+				} else if(b == 0 && column == 0) {
+					// unwritten rest of a memory-mapped segment
+					length = lineStart;
+					break;
+				} else if(column < DATE_LENGTH) {
+					date[column++] = b;
+					if(column == DATE_LENGTH) {
+						long day = epochDay(date, 0);
+						if(day != Long.MIN_VALUE && day > lastDay) {
+							add((int) day, lineStart);
+							lastDay = day;
+						}
+					}
+				}
+			}
+		}
+		checksum = checksum(channel, indexedLength);
+	}
+
+	private void add(int day, long offset) {
+		if(size == days.length) {
+			days = Arrays.copyOf(days, size * 2);
+			offsets = Arrays.copyOf(offsets, size * 2);
+		}
+		days[size] = day;
+		offsets[size] = offset;
+		size++;
+	}
+
+	/**
+	 * @param bytes - bytes containing a date of the form {@code yyyy-MM-dd}
+	 * @param from - index of the first byte of the date; at least {@value #DATE_LENGTH} bytes have to follow
+	 * @return epoch day of the date; {@link Long#MIN_VALUE} if the bytes are no date
+	 */
+	static long epochDay(byte[] bytes, int from) {
+		for(int i = 0; i < DATE_LENGTH; i++) {
+			byte b = bytes[from + i];
+			boolean valid = i == 4 || i == 7 ? b == '-' : b >= '0' && b <= '9';
+			if(!valid) {
+				return Long.MIN_VALUE;
+			}
+		}
+		int year = (bytes[from] - '0') * 1000 + (bytes[from + 1] - '0') * 100 + (bytes[from + 2] - '0') * 10 + (bytes[from + 3] - '0');
+		int month = (bytes[from + 5] - '0') * 10 + (bytes[from + 6] - '0');
+		int day = (bytes[from + 8] - '0') * 10 + (bytes[from + 9] - '0');
+		if(month < 1 || month > 12 || day < 1 || day > 31) {
+			return Long.MIN_VALUE;
+		}
+		try {
+			return LocalDate.of(year, month, day).toEpochDay();
+		} catch(DateTimeException e) {
+			return Long.MIN_VALUE;
+		}
+	}
+
+	/**
+	 * @return checksum of the first bytes of the log-file up to {@code length}, to notice a replaced log-file
+	 */
+	private static int checksum(FileChannel channel, long length) throws IOException {
+		ByteBuffer head = ByteBuffer.allocate((int) Math.min(CHECKSUM_LENGTH, length));
+		while(head.hasRemaining() && channel.read(head, head.position()) > 0) {
+			// read until full
+		}
+		CRC32 crc = new CRC32();
+		crc.update(head.flip());
+		return (int) crc.getValue();
+	}
+
+	private static LogIndex read(File file) throws IOException {
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		if(bytes.length < HEADER_SIZE || (bytes.length - HEADER_SIZE) % RECORD_SIZE != 0) {
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		if(buffer.getInt() != MAGIC) {
+			return null;
+		}
+		LogIndex index = new LogIndex();
+		index.indexedLength = buffer.getLong();
+		index.checksum = buffer.getInt();
+		int count = buffer.getInt();
+		buffer.getInt(); // reserved
+		if(count != (bytes.length - HEADER_SIZE) / RECORD_SIZE) {
+			return null;
+		}
+		for(int i = 0; i < count; i++) {
+			index.add(buffer.getInt(), buffer.getLong());
+		}
+		return index;
+	}
+
+	/**
+	 * Writes the index to a temporary file that replaces {@code file}, so readers never see a partial index.
+	 */
+	private void write(File file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size * RECORD_SIZE);
+		buffer.putInt(MAGIC).putLong(indexedLength).putInt(checksum).putInt(size).putInt(0);
+		for(int i = 0; i < size; i++) {
+			buffer.putInt(days[i]).putLong(offsets[i]);
+		}
+		File temporary = new File(file.getParentFile(), file.getName() + ".tmp");
+		Files.write(temporary.toPath(), buffer.array());
+		Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
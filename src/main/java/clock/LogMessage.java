@@ -0,0 +1,84 @@
+package clock;
+
+/**
+ * <p>Formats log messages with {@code {}} placeholders like {@code "Timer runs out at {} in {}."}. Every
+ * placeholder is replaced by the next argument in order; placeholders without an argument are kept and surplus
+ * arguments are ignored.</p>
+ *
+ * <p>The {@link Logger} only formats a message after its level check passed, so arguments of suppressed
+ * messages are never converted to strings.</p>
+ */
+final class LogMessage {
+
+	private static final String PLACEHOLDER = "{}";
+
+	private LogMessage() {
+	}
+
+	static String format(String pattern, Object argument) {
+		StringBuilder builder = new StringBuilder(pattern.length() + 16);
+		int from = appendUntilPlaceholder(builder, pattern, 0);
+		if(from >= 0) {
+			builder.append(argument);
+			appendRest(builder, pattern, from);
+		}
+		return builder.toString();
+	}
+
+	static String format(String pattern, long argument) {
+		StringBuilder builder = new StringBuilder(pattern.length() + 16);
+		int from = appendUntilPlaceholder(builder, pattern, 0);
+		if(from >= 0) {
+			builder.append(argument);
+			appendRest(builder, pattern, from);
+		}
+		return builder.toString();
+	}
+
+	static String format(String pattern, Object first, Object second) {
+		StringBuilder builder = new StringBuilder(pattern.length() + 32);
+		int from = appendUntilPlaceholder(builder, pattern, 0);
+		if(from >= 0) {
+			builder.append(first);
+			from = appendUntilPlaceholder(builder, pattern, from);
+			if(from >= 0) {
+				builder.append(second);
+				appendRest(builder, pattern, from);
+			}
+		}
+		return builder.toString();
+	}
+
+	static String format(String pattern, Object... arguments) {
+		StringBuilder builder = new StringBuilder(pattern.length() + 16 * arguments.length);
+		int from = 0;
+		for(Object argument : arguments) {
+			from = appendUntilPlaceholder(builder, pattern, from);
+			if(from < 0) {
+				return builder.toString();
+			}
+			builder.append(argument);
+		}
+		appendRest(builder, pattern, from);
+		return builder.toString();
+	}
+
+	/**
+	 * Appends {@code pattern} from {@code from} up to the next placeholder, or up to its end if there is none.
+	 *
+	 * @return index after the placeholder; {@code -1} if there was no placeholder left
+	 */
+	private static int appendUntilPlaceholder(StringBuilder builder, String pattern, int from) {
+		int index = pattern.indexOf(PLACEHOLDER, from);
+		if(index < 0) {
+			builder.append(pattern, from, pattern.length());
+			return -1;
+		}
+		builder.append(pattern, from, index);
+		return index + PLACEHOLDER.length();
+	}
+
+	private static void appendRest(StringBuilder builder, String pattern, int from) {
+		builder.append(pattern, from, pattern.length());
+	}
+}
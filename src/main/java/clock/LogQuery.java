@@ -0,0 +1,355 @@
+package clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import clock.Logger.Level;
+
+/**
+ * <p>Filters the entries of log-files by date range, level and a text contained in the entry. Every filter is
+ * optional; an entry has to pass all given filters.</p>
+ *
+ * <p>Dates are compared on the bytes of the timestamp and levels on the bytes of the level column, so entries are
+ * only decoded if they match. For an indexed log-file the {@link LogIndex} narrows the scan to the lines of the
+ * date range; the remaining region is split into chunks at line boundaries by {@link LineChunks}, which are
+ * memory-mapped and scanned straight from the mapping on the threads of the common {@link ForkJoinPool}. Matches
+ * are reported in file order and only a few chunks are scanned at any time, so log-files of any size can be
+ * queried. Archived log-files are queried block by block with {@link #runArchive(File, Consumer)}.</p>
+ */
+class LogQuery {
+
+	static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+	private static final int DATE_LENGTH = 10;
+	private static final int LEVEL_OFFSET = LogEncoder.TIMESTAMP_LENGTH;
+	private static final long NEWLINES = 0x0a0a0a0a0a0a0a0aL;
+
+	private final byte[] from;
+	private final byte[] to;
+	private final byte[] levelColumn;
+	private final byte[] text;
+	private final LocalDate fromDate;
+	private final LocalDate toDate;
+	private final int chunkSize;
+	private final int chunksInFlight;
+
+	/**
+	 * @param from - first date of the entries; {@code null} for no lower bound
+	 * @param to - last date of the entries; {@code null} for no upper bound
+	 * @param level - level of the entries; {@code null} for every level
+	 * @param text - text that has to be contained in the entries; {@code null} for every entry
+	 */
+	LogQuery(LocalDate from, LocalDate to, Level level, String text) {
+		this(from, to, level, text, DEFAULT_CHUNK_SIZE, 2 * ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * @param from - first date of the entries; {@code null} for no lower bound
+	 * @param to - last date of the entries; {@code null} for no upper bound
+	 * @param level - level of the entries; {@code null} for every level
+	 * @param text - text that has to be contained in the entries; {@code null} for every entry
+	 * @param chunkSize - approximate size of a chunk in bytes; chunks are extended to the end of their last line
+	 * @param chunksInFlight - number of chunks that are scanned in parallel before their matches are reported
+	 */
+	LogQuery(LocalDate from, LocalDate to, Level level, String text, int chunkSize, int chunksInFlight) {
+		if(from != null && to != null && from.isAfter(to)) {
+			throw new IllegalArgumentException("First date " + from + " is after last date " + to + ".");
+		}
+		if(chunkSize < 1 || chunksInFlight < 1) {
+			throw new IllegalArgumentException("Chunk size and chunks in flight have to be positive but are " + chunkSize + " and " + chunksInFlight + ".");
+		}
+		this.fromDate = from;
+		this.toDate = to;
+		this.from = from == null ? null : from.toString().getBytes(StandardCharsets.US_ASCII);
+		this.to = to == null ? null : to.toString().getBytes(StandardCharsets.US_ASCII);
+		this.levelColumn = level == null ? null : LogEncoder.levelColumn(level);
+		this.text = text == null || text.isEmpty() ? null : text.getBytes(StandardCharsets.UTF_8);
+		this.chunkSize = chunkSize;
+		this.chunksInFlight = chunksInFlight;
+	}
+
+	/**
+	 * @param year - year of a log-file
+	 * @return {@code false} if no entry of the year can be in the date range
+	 */
+	boolean covers(int year) {
+		return (fromDate == null || year >= fromDate.getYear()) && (toDate == null || year <= toDate.getYear());
+	}
+
+	/**
+	 * Reports every matching entry of {@code file} in file order. With {@code indexed} the region of the date
+	 * range is looked up in the {@link LogIndex} of the file, which is created or extended on the way; the entries
+	 * of an indexed file have to be appended in chronological order, as {@link Logger} does.
+	 *
+	 * @param file - log-file to be queried
+	 * @param indexed - {@code true} to use the index of the file
+	 * @param matches - receives the matching entries without line separator
+	 * @return statistics of the query
+	 * @throws IOException if a file could not be read
+	 */
+	Result run(File file, boolean indexed, Consumer<String> matches) throws IOException {
+		long started = System.nanoTime();
+		long found = 0;
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long length = channel.size();
+			long start = 0;
+			long end = length;
+			if(indexed && (fromDate != null || toDate != null)) {
+				LogIndex index = LogIndex.open(file);
+				if(fromDate != null) {
+					start = offsetOrEnd(index, fromDate, length);
+				}
+				if(toDate != null) {
+					// lines of the last date may follow the first line of the next date if writers interleaved at midnight
+					end = Math.max(start, offsetOrEnd(index, toDate.plusDays(2), length));
+				}
+			}
+			if(start == end) {
+				return new Result(0, 0, length, System.nanoTime() - started);
+			}
+
+			long[] boundaries = LineChunks.split(channel, start, end, chunkSize);
+			for(int first = 0; first < boundaries.length - 1; first += chunksInFlight) {
+				int last = Math.min(first + chunksInFlight, boundaries.length - 1);
+				List<List<String>> chunks;
+				try {
+					chunks = IntStream.range(first, last).parallel()
+							.mapToObj(i -> scan(channel, boundaries[i], boundaries[i + 1]))
+							.collect(Collectors.toList());
+				} catch(UncheckedIOException e) {
+					throw e.getCause();
+				}
+				for(List<String> chunk : chunks) {
+					chunk.forEach(matches);
+					found += chunk.size();
+				}
+			}
+			return new Result(found, end - start, length, System.nanoTime() - started);
+		}
+	}
+
+	/**
+	 * Reports every matching entry of a {@link LogArchive} in archive order. Only the blocks holding entries of the
+	 * date range are decompressed, in parallel windows like the chunks of a log-file.
+	 *
+	 * @param archive - archived log-file to be queried
+	 * @param matches - receives the matching entries without line separator
+	 * @return statistics of the query; the scanned and total bytes are uncompressed
+	 * @throws IOException if the archive could not be read
+	 */
+	Result runArchive(File archive, Consumer<String> matches) throws IOException {
+		long started = System.nanoTime();
+		long found = 0;
+		long scanned = 0;
+
+		try(LogArchive blocks = new LogArchive(archive)) {
+			int[] needed = IntStream.range(0, blocks.blocks()).filter(i -> blocks.overlaps(i, fromDate, toDate)).toArray();
+			for(int first = 0; first < needed.length; first += chunksInFlight) {
+				int last = Math.min(first + chunksInFlight, needed.length);
+				List<List<String>> chunks;
+				try {
+					chunks = IntStream.range(first, last).parallel()
+							.mapToObj(i -> {
+								try {
+									return scan(ByteBuffer.wrap(blocks.block(needed[i])));
+								} catch(IOException e) {
+									throw new UncheckedIOException(e);
+								}
+							})
+							.collect(Collectors.toList());
+				} catch(UncheckedIOException e) {
+					throw e.getCause();
+				}
+				for(List<String> chunk : chunks) {
+					chunk.forEach(matches);
+					found += chunk.size();
+				}
+			}
+			for(int block : needed) {
+				scanned += blocks.length(block);
+			}
+			return new Result(found, scanned, blocks.length(), System.nanoTime() - started);
+		}
+	}
+
+	/**
+	 * @return offset of the first line on or after {@code date}, {@code length} if none was indexed yet
+	 */
+	private static long offsetOrEnd(LogIndex index, LocalDate date, long length) {
+		long offset = index.offsetOf(date);
+		return offset == index.getIndexedLength() ? length : Math.min(offset, length);
+	}
+
+	private List<String> scan(FileChannel channel, long from, long to) {
+		try {
+			return scan(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from));
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Scans the lines between index {@code 0} and the limit of {@code bytes} with absolute reads, so a mapped chunk
+	 * is never copied; only matching lines are decoded.
+	 */
+	private List<String> scan(ByteBuffer bytes) {
+		List<String> found = new ArrayList<>();
+		// the lowest byte of a word has to be the first one for finding the line separators
+		bytes.order(ByteOrder.LITTLE_ENDIAN);
+		int length = bytes.limit();
+		int start = 0;
+		while(start < length) {
+			if(bytes.get(start) == 0) {
+				// unwritten rest of a memory-mapped segment
+				break;
+			}
+			int end = lineEnd(bytes, start, length);
+			int valueEnd = end > start && bytes.get(end - 1) == '\r' ? end - 1 : end;
+			if(matches(bytes, start, valueEnd)) {
+				byte[] line = new byte[valueEnd - start];
+				bytes.get(start, line);
+				found.add(new String(line, StandardCharsets.UTF_8));
+			}
+			start = end + 1;
+		}
+		return found;
+	}
+
+	/**
+	 * Finds the next line separator eight bytes at a time: every absolute read of a mapped buffer is checked on its
+	 * own, so reading single bytes would cost more than copying the chunk to the heap first.
+	 *
+	 * @return index of the next {@code '\n'} at or after {@code from}; {@code length} if there is none
+	 */
+	private static int lineEnd(ByteBuffer bytes, int from, int length) {
+		int i = from;
+		for(int last = length - Long.BYTES; i <= last; i += Long.BYTES) {
+			long word = bytes.getLong(i) ^ NEWLINES;
+			long found = (word - 0x0101010101010101L) & ~word & 0x8080808080808080L;
+			if(found != 0) {
+				return i + (Long.numberOfTrailingZeros(found) >>> 3);
+			}
+		}
+		while(i < length && bytes.get(i) != '\n') {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @return {@code true} if the line from index {@code from} to {@code to - 1} of {@code bytes} passes all filters
+	 */
+	private boolean matches(ByteBuffer bytes, int from, int to) {
+		if(this.from != null || this.to != null) {
+			if(to - from < DATE_LENGTH) {
+				return false;
+			}
+			if(this.from != null && compare(bytes, from, this.from) < 0) {
+				return false;
+			}
+			if(this.to != null && compare(bytes, from, this.to) > 0) {
+				return false;
+			}
+		}
+		if(levelColumn != null && !regionMatches(bytes, from + LEVEL_OFFSET, to, levelColumn)) {
+			return false;
+		}
+		return text == null || indexOf(bytes, from, to, text) >= 0;
+	}
+
+	/**
+	 * Compares the date at the start of a line with {@code date}; dates of the form {@code yyyy-MM-dd} sort like their bytes.
+	 */
+	private static int compare(ByteBuffer bytes, int from, byte[] date) {
+		for(int i = 0; i < DATE_LENGTH; i++) {
+			int difference = bytes.get(from + i) - date[i];
+			if(difference != 0) {
+				return difference;
+			}
+		}
+		return 0;
+	}
+
+	private static boolean regionMatches(ByteBuffer bytes, int from, int to, byte[] region) {
+		if(to - from < region.length) {
+			return false;
+		}
+		for(int i = 0; i < region.length; i++) {
+			if(bytes.get(from + i) != region[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int indexOf(ByteBuffer bytes, int from, int to, byte[] text) {
+		byte first = text[0];
+		for(int i = from, last = to - text.length; i <= last; i++) {
+			if(bytes.get(i) == first && regionMatches(bytes, i, to, text)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Statistics of a query of one log-file.
+	 */
+	static final class Result {
+		private final long matches;
+		private final long scannedBytes;
+		private final long totalBytes;
+		private final long nanos;
+
+		private Result(long matches, long scannedBytes, long totalBytes, long nanos) {
+			this.matches = matches;
+			this.scannedBytes = scannedBytes;
+			this.totalBytes = totalBytes;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * @return number of matching entries
+		 */
+		long getMatches() {
+			return matches;
+		}
+
+		/**
+		 * @return number of bytes that were scanned after skipping to the date range
+		 */
+		long getScannedBytes() {
+			return scannedBytes;
+		}
+
+		/**
+		 * @return size of the log-file
+		 */
+		long getTotalBytes() {
+			return totalBytes;
+		}
+
+		long getNanos() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			return "Result [matches=" + matches + ", scannedBytes=" + scannedBytes + ", totalBytes=" + totalBytes + ", millis=" + nanos / 1_000_000 + "]";
+		}
+	}
+}
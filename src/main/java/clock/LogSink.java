@@ -0,0 +1,42 @@
+package clock;
+
+import clock.Deadline.State;
+
+/**
+ * <p>Sink that writes changes of the timer state and every full hour before and after the ending into the log.</p>
+ */
+class LogSink implements StateSink {
+
+	private final DurationText durations = DurationText.ENGLISH;
+	private State lastState = null;
+	private long lastMilestone = -1;
+
+	@Override
+	public void accept(TimerState state) {
+		if(state.getState() != lastState) {
+			lastState = state.getState();
+			lastMilestone = -1;
+			Logger.info("Timer state changed to {}.", lastState);
+		}
+
+		long minutes;
+		switch(state.getState()) {
+			case RUNNING: {
+				minutes = Minutes.until(state.getNowMinute(), state.getEndingMinute());
+			} break;
+			case OVERTIME: {
+				minutes = state.getCurrentOvertime();
+			} break;
+			default:
+				return;
+		}
+
+		long hours = minutes / 60;
+		if(minutes % 60 == 0 && hours > 0 && hours != lastMilestone) {
+			lastMilestone = hours;
+			Logger.info(state.getState() == State.RUNNING
+					? "Timer runs out in " + durations.text(minutes) + "."
+					: "Timer ran out " + durations.text(minutes) + " ago.");
+		}
+	}
+}
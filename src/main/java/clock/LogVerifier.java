@@ -0,0 +1,221 @@
+package clock;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import clock.Logger.Level;
+
+/**
+ * <p>Checks the integrity of the entries of a log-file. Every line has to start with a timestamp of the form
+ * {@code "yyyy-MM-dd HH:mm:ss"} followed by a level column like {@code " | INFO    | "}, has to be valid UTF-8 and
+ * has to end with a line separator. A line that was torn or interleaved with the entry of another writer breaks at
+ * least one of these rules, unless the tear happens exactly at the boundary of two entries.</p>
+ *
+ * <p>Zero bytes at the start of a line mark the unwritten rest of a {@link MappedRollingLog} segment and end the
+ * check of the file.</p>
+ */
+class LogVerifier {
+
+	private static final int TIMESTAMP_LENGTH = LogEncoder.TIMESTAMP_LENGTH;
+	private static final int MAX_LINE_LENGTH = 1 << 20;
+
+	private final byte[][] levelColumns;
+	private final int levelColumnLength;
+
+	LogVerifier() {
+		Level[] levels = Level.values();
+		levelColumns = new byte[levels.length][];
+		for(Level level : levels) {
+			levelColumns[level.ordinal()] = LogEncoder.levelColumn(level);
+		}
+		levelColumnLength = levelColumns[0].length;
+	}
+
+	/**
+	 * @param file - log-file to be checked
+	 * @return result of the check
+	 * @throws IOException if the file could not be read
+	 */
+	Report verify(File file) throws IOException {
+		try(InputStream in = new FileInputStream(file)) {
+			return verify(in);
+		}
+	}
+
+	/**
+	 * @param in - stream of the log entries
+	 * @return result of the check
+	 * @throws IOException if the stream could not be read
+	 */
+	Report verify(InputStream in) throws IOException {
+		Report report = new Report();
+		byte[] chunk = new byte[1 << 16];
+		byte[] line = new byte[256];
+		int length = 0;
+		boolean overlong = false;
+		int read;
+		while((read = in.read(chunk)) >= 0) {
+			for(int i = 0; i < read; i++) {
+				byte b = chunk[i];
+				if(b == 0 && length == 0) {
+					return report;
+				}
+				if(b == '\n') {
+					report.check(!overlong && isValid(line, length));
+					length = 0;
+					overlong = false;
+				} else if(length < line.length) {
+					line[length++] = b;
+				} else if(length < MAX_LINE_LENGTH) {
+					line = Arrays.copyOf(line, length * 2);
+					line[length++] = b;
+				} else {
+					overlong = true;
+				}
+			}
+		}
+		if(length > 0) {
+			// the last entry misses its line separator
+			report.check(false);
+			report.tornTail = true;
+		}
+		return report;
+	}
+
+	private boolean isValid(byte[] line, int length) {
+		if(length > 0 && line[length - 1] == '\r') {
+			length--;
+		}
+		if(length < TIMESTAMP_LENGTH + levelColumnLength || !isTimestamp(line)) {
+			return false;
+		}
+		if(!isLevelColumn(line)) {
+			return false;
+		}
+		return isUtf8(line, TIMESTAMP_LENGTH + levelColumnLength, length);
+	}
+
+	private static boolean isTimestamp(byte[] line) {
+		for(int i = 0; i < TIMESTAMP_LENGTH; i++) {
+			byte b = line[i];
+			boolean valid;
+			switch(i) {
+				case 4, 7: valid = b == '-'; break;
+				case 10: valid = b == ' '; break;
+				case 13, 16: valid = b == ':'; break;
+				default: valid = b >= '0' && b <= '9';
+			}
+			if(!valid) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isLevelColumn(byte[] line) {
+		outer:
+		for(byte[] column : levelColumns) {
+			for(int i = 0; i < column.length; i++) {
+				if(line[TIMESTAMP_LENGTH + i] != column[i]) {
+					continue outer;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return {@code true} if {@code line[from]} to {@code line[to - 1]} is valid UTF-8 without zero bytes
+	 */
+	private static boolean isUtf8(byte[] line, int from, int to) {
+		int i = from;
+		while(i < to) {
+			int b = line[i] & 0xFF;
+			int continuation;
+			if(b == 0) {
+				return false;
+			} else if(b < 0x80) {
+				continuation = 0;
+			} else if(b >= 0xC2 && b < 0xE0) {
+				continuation = 1;
+			} else if(b >= 0xE0 && b < 0xF0) {
+				continuation = 2;
+			} else if(b >= 0xF0 && b < 0xF5) {
+				continuation = 3;
+			} else {
+				return false;
+			}
+			if(i + continuation >= to) {
+				return false;
+			}
+			for(int j = 1; j <= continuation; j++) {
+				if((line[i + j] & 0xC0) != 0x80) {
+					return false;
+				}
+			}
+			i += continuation + 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Result of a check.
+	 */
+	static final class Report {
+		private long entries = 0;
+		private long corrupt = 0;
+		private long firstCorruptLine = -1;
+		private boolean tornTail = false;
+
+		private void check(boolean valid) {
+			entries++;
+			if(!valid) {
+				corrupt++;
+				if(firstCorruptLine < 0) {
+					firstCorruptLine = entries;
+				}
+			}
+		}
+
+		/**
+		 * @return number of checked lines
+		 */
+		long getEntries() {
+			return entries;
+		}
+
+		/**
+		 * @return number of lines that are no valid entry
+		 */
+		long getCorrupt() {
+			return corrupt;
+		}
+
+		/**
+		 * @return number of the first corrupt line starting at 1; {@code -1} if there is none
+		 */
+		long getFirstCorruptLine() {
+			return firstCorruptLine;
+		}
+
+		/**
+		 * @return {@code true} if the last line misses its line separator
+		 */
+		boolean isTornTail() {
+			return tornTail;
+		}
+
+		boolean isIntact() {
+			return corrupt == 0;
+		}
+
+		@Override
+		public String toString() {
+			return "Report [entries=" + entries + ", corrupt=" + corrupt + ", firstCorruptLine=" + firstCorruptLine + ", tornTail=" + tornTail + "]";
+		}
+	}
+}
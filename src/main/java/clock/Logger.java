@@ -1,22 +1,31 @@
 package clock;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class Logger {
 	private static Level level;
 	private static File logfile;
-	private static boolean smartflush = false; //TODO: this should serve an actual purpose
+	private static boolean smartflush = false;
+	private static FlushPolicy flushPolicy = new FlushPolicy();
+	private static ScheduledExecutorService flushScheduler;
 	
-	private static final String whitespaces = "                             ";
-	private static final Level maxStringLength = Level.WARNING;	
-	private static FileWriter fileWriter;
-	private static BufferedWriter writer;
+	private static WritableByteChannel channel;
+	private static FileChannel writerLock; // holds the lock that keeps the log-file from being archived
+	private static boolean pendingOpen = false;
+	private static long segmentSize;
+	private static int segmentCount; // 0 for a single log-file
+	private static LogEncoder encoder;
+	private static volatile AsyncLogWriter asyncWriter;
+	private static volatile ErrorFingerprints errors = new ErrorFingerprints();
 	
 	public static enum Level{
 		DEBUG,
@@ -26,94 +35,451 @@ public class Logger {
 		NONE
 	}
 	
+	/**
+	 * Decides what happens to a log entry in asynchronous mode if the ring buffer is full.
+	 */
+	public static enum OverflowPolicy{
+		/** the caller waits until the writer thread has freed a slot */
+		BLOCK,
+		/** the entry is dropped and counted; the count is logged by the writer thread */
+		DROP,
+		/** the entry is written synchronously on the caller's thread */
+		SYNC
+	}
+	
 	static void debug(String message) {
-		writeNonErrorEntry(Level.DEBUG, message);
+		if(isEnabled(Level.DEBUG)) {
+			write(Level.DEBUG, message);
+		}
+	}
+	
+	static void debug(Supplier<String> message) {
+		if(isEnabled(Level.DEBUG)) {
+			write(Level.DEBUG, message.get());
+		}
+	}
+	
+	static void debug(String pattern, Object argument) {
+		if(isEnabled(Level.DEBUG)) {
+			write(Level.DEBUG, LogMessage.format(pattern, argument));
+		}
+	}
+	
+	static void debug(String pattern, long argument) {
+		if(isEnabled(Level.DEBUG)) {
+			write(Level.DEBUG, LogMessage.format(pattern, argument));
+		}
+	}
+	
+	static void debug(String pattern, Object first, Object second) {
+		if(isEnabled(Level.DEBUG)) {
+			write(Level.DEBUG, LogMessage.format(pattern, first, second));
+		}
+	}
+	
+	static void debug(String pattern, Object... arguments) {
+		if(isEnabled(Level.DEBUG)) {
+			write(Level.DEBUG, LogMessage.format(pattern, arguments));
+		}
 	}
 	
 	static void info(String message) {
-		writeNonErrorEntry(Level.INFO, message);
+		if(isEnabled(Level.INFO)) {
+			write(Level.INFO, message);
+		}
+	}
+	
+	static void info(Supplier<String> message) {
+		if(isEnabled(Level.INFO)) {
+			write(Level.INFO, message.get());
+		}
+	}
+	
+	static void info(String pattern, Object argument) {
+		if(isEnabled(Level.INFO)) {
+			write(Level.INFO, LogMessage.format(pattern, argument));
+		}
+	}
+	
+	static void info(String pattern, long argument) {
+		if(isEnabled(Level.INFO)) {
+			write(Level.INFO, LogMessage.format(pattern, argument));
+		}
+	}
+	
+	static void info(String pattern, Object first, Object second) {
+		if(isEnabled(Level.INFO)) {
+			write(Level.INFO, LogMessage.format(pattern, first, second));
+		}
+	}
+	
+	static void info(String pattern, Object... arguments) {
+		if(isEnabled(Level.INFO)) {
+			write(Level.INFO, LogMessage.format(pattern, arguments));
+		}
 	}
 	
 	static void warning(String message) {
-		writeNonErrorEntry(Level.WARNING, message);	
+		if(isEnabled(Level.WARNING)) {
+			write(Level.WARNING, message);
+		}
 	}
 	
-	//TODO this can be unified with writeNonError entry -> method with lvl and string param
-	static void error(Exception e) {
-		if(logfile == null || level == null) {
-			System.out.println("Warning! Logging attempt while Logger is not initialized!");
-			return;
+	static void warning(Supplier<String> message) {
+		if(isEnabled(Level.WARNING)) {
+			write(Level.WARNING, message.get());
 		}
-		if(level.ordinal() > Level.ERROR.ordinal()) {
-			return;
+	}
+	
+	static void warning(String pattern, Object argument) {
+		if(isEnabled(Level.WARNING)) {
+			write(Level.WARNING, LogMessage.format(pattern, argument));
 		}
-		
-		if(smartflush) {
-			writeEntry(Level.ERROR, e.getMessage() + Arrays.toString(e.getStackTrace()));
-		} else {
-			writeEntryFlush(Level.ERROR, e.getMessage() + Arrays.toString(e.getStackTrace()));
+	}
+	
+	static void warning(String pattern, long argument) {
+		if(isEnabled(Level.WARNING)) {
+			write(Level.WARNING, LogMessage.format(pattern, argument));
 		}
 	}
 	
+	static void warning(String pattern, Object first, Object second) {
+		if(isEnabled(Level.WARNING)) {
+			write(Level.WARNING, LogMessage.format(pattern, first, second));
+		}
+	}
+	
+	static void warning(String pattern, Object... arguments) {
+		if(isEnabled(Level.WARNING)) {
+			write(Level.WARNING, LogMessage.format(pattern, arguments));
+		}
+	}
+	
+	/**
+	 * Writes {@code e} with its stack trace. Repeats of the same error are collapsed by the {@link ErrorFingerprints}.
+	 * 
+	 * @param e - the exception to be logged
+	 */
+	static void error(Exception e) {
+		if(isEnabled(Level.ERROR)) {
+			for(String message : errors.occurred(e, System.currentTimeMillis())) {
+				write(Level.ERROR, message);
+			}
+		}
+	}
+	
+	/**
+	 * Initiates the logger to append to {@code logfile}. Entries are encoded as atomic records and every write is a
+	 * single append of complete entries, so several processes can share the log-file without locks.
+	 * 
+	 * @param logfile - log-file to append to
+	 * @param level - minimal level of entries to be written
+	 * @throws IOException if the log-file could not be opened
+	 */
 	static void init(File logfile, Level level) throws IOException {
+		initLazily(logfile, level);
+		open();
+	}
+	
+	/**
+	 * Initiates the logger like {@link #init(File, Level)}, but only creates the directory and opens the log-file
+	 * when the first entry is written, so runs that do not log never touch the file system. If opening fails then,
+	 * further logging is disabled.
+	 * 
+	 * @param logfile - log-file to append to
+	 * @param level - minimal level of entries to be written
+	 */
+	static synchronized void initLazily(File logfile, Level level) {
 		Logger.logfile = logfile;
 		Logger.level = level;
-		Logger.writer = openLoggingStream();
+		Logger.channel = null;
+		Logger.pendingOpen = true;
+		Logger.segmentCount = 0;
+	}
+	
+	/**
+	 * Initiates the logger to write into a ring of {@code segmentCount} memory-mapped segments with
+	 * {@code segmentSize} bytes each instead of a single growing log-file. See {@link MappedRollingLog}.
+	 * 
+	 * @param logfile - log-file the segment names are derived from
+	 * @param level - minimal level of entries to be written
+	 * @param segmentSize - size of a single segment in bytes
+	 * @param segmentCount - number of segments before the oldest one is reused
+	 * @throws IOException if the segments could not be opened
+	 */
+	static void initRolling(File logfile, Level level, long segmentSize, int segmentCount) throws IOException {
+		initRollingLazily(logfile, level, segmentSize, segmentCount);
+		open();
+	}
+	
+	/**
+	 * Initiates the logger like {@link #initRolling(File, Level, long, int)}, but only opens the segments when the
+	 * first entry is written, see {@link #initLazily(File, Level)}.
+	 * 
+	 * @param logfile - log-file the segment names are derived from
+	 * @param level - minimal level of entries to be written
+	 * @param segmentSize - size of a single segment in bytes
+	 * @param segmentCount - number of segments before the oldest one is reused
+	 */
+	static synchronized void initRollingLazily(File logfile, Level level, long segmentSize, int segmentCount) {
+		Logger.logfile = logfile;
+		Logger.level = level;
+		Logger.channel = null;
+		Logger.pendingOpen = true;
+		Logger.segmentSize = segmentSize;
+		Logger.segmentCount = segmentCount;
+	}
+	
+	/**
+	 * Creates the directory and opens the log-file of a lazily initiated logger now, e.g. to handle a failure
+	 * before the timer starts. Does nothing if it is open already.
+	 * 
+	 * @throws IOException if the directory or the log-file could not be created
+	 */
+	static synchronized void open() throws IOException {
+		if(!pendingOpen) {
+			return;
+		}
+		File directory = logfile.getAbsoluteFile().getParentFile();
+		if(directory != null) {
+			Files.createDirectories(directory.toPath());
+		}
+		if(segmentCount > 0) {
+			channel = new MappedRollingLog(logfile, segmentSize, segmentCount);
+			encoder = new LogEncoder();
+		} else {
+			channel = FileChannel.open(logfile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			// a shared lock needs a channel for reading, which an appending channel cannot be
+			writerLock = FileChannel.open(logfile.toPath(), StandardOpenOption.READ);
+			LogArchive.lockForWriting(writerLock);
+			encoder = new LogEncoder(true);
+		}
+		pendingOpen = false;
+	}
+	
+	/**
+	 * Moves the file I/O of all further log entries onto a dedicated writer thread. Entries are handed over
+	 * through a bounded ring buffer with {@code capacity} slots; a full buffer is handled according to {@code policy}.
+	 * 
+	 * @param capacity - number of entries the ring buffer can hold
+	 * @param policy - behaviour if the ring buffer is full
+	 */
+	static synchronized void enableAsync(int capacity, OverflowPolicy policy) {
+		if(asyncWriter == null) {
+			asyncWriter = new AsyncLogWriter(capacity, policy);
+		}
 	}
 	
+	/**
+	 * Writes all pending entries of the asynchronous mode and closes the log-file.
+	 * 
+	 * @throws IOException if closing the log-file failed
+	 */
 	static void close() throws IOException {
-		writer.close();
+		if(level != null && level != Level.NONE && logfile != null) {
+			for(String summary : errors.drainSummaries()) {
+				write(Level.ERROR, summary);
+			}
+		}
+		AsyncLogWriter async;
+		synchronized(Logger.class) {
+			async = asyncWriter;
+			asyncWriter = null;
+		}
+		if(async != null) {
+			async.close();
+		}
+		disableSmartflush();
+		synchronized(Logger.class) {
+			// entries after closing must not open the log-file again
+			pendingOpen = false;
+			if(channel != null) {
+				channel.close();
+			}
+			if(writerLock != null) {
+				writerLock.close();
+				writerLock = null;
+			}
+		}
 	}
 
-	private static void writeNonErrorEntry(Level levelToWrite, String message) {
-		if(logfile == null || level == null) {
+	/**
+	 * Checks the level before anything else, so messages of suppressed levels are neither built nor formatted.
+	 * 
+	 * @param levelToWrite - level of the entry
+	 * @return {@code true} if entries of {@code levelToWrite} are written
+	 */
+	static boolean isEnabled(Level levelToWrite) {
+		Level current = level;
+		if(current != null && current.ordinal() > levelToWrite.ordinal()) {
+			return false;
+		}
+		if(logfile == null || current == null) {
 			System.out.println("Warning! Logging attempt while Logger is not initialized!");
-			return;
+			return false;
 		}
-		if(level.ordinal() > levelToWrite.ordinal()) {
+		return true;
+	}
+	
+	/**
+	 * Hands the entry to the writer thread in asynchronous mode or writes it directly otherwise.
+	 */
+	private static void write(Level levelToWrite, String message) {
+		long timestamp = System.currentTimeMillis();
+		AsyncLogWriter async = asyncWriter;
+		if(async != null && async.offer(timestamp, levelToWrite, message)) {
 			return;
 		}
 		
-		if(smartflush) {
-			writeEntry(levelToWrite, message);
-		} else {
-			writeEntryFlush(levelToWrite, message);
-		}
+		writeEntryCommit(timestamp, levelToWrite, message);
 	}
 	
-	private static void writeEntryFlush(Level level, String message) {
+	private static synchronized void writeEntryCommit(long timestamp, Level level, String message) {
+		writeEntry(timestamp, level, message);
+		commit(level);
+	}
+	
+	/**
+	 * Writes the entry into the buffer of the log-file without flushing it. The entry has to be committed with
+	 * {@link #commit(Level)} afterwards.
+	 */
+	static synchronized void writeEntry(long timestamp, Level level, String message) {
+		if(Logger.level == Level.NONE || !isOpen()) {
+			return;
+		}
 		try {
-			writer.write(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + " | " + level.name() + whitespaces.substring(0, maxStringLength.name().length() - level.name().length()) + " | " + message);
-			writer.newLine();
-			writer.flush();
+			ClockEvents.LogWrite event = null;
+			if(ClockEvents.isRecording()) {
+				event = new ClockEvents.LogWrite();
+				event.begin();
+			}
+			int bytes = encoder.encode(timestamp, level, message, channel);
+			flushPolicy.recordWritten(bytes, timestamp);
+			ClockMonitor.get().logWritten(bytes);
+			if(event != null && event.shouldCommit()) {
+				event.level = level.name();
+				event.bytes = bytes;
+				event.commit();
+			}
 		} catch (IOException e) {
 			System.out.println("Could not write to logfile! Disabling further logging for this instance.");
 			Logger.level = Level.NONE;
 		}
 	}
 	
-	private static void writeEntry(Level level, String message) {
+	/**
+	 * Flushes the entries written since the last flush if smartflush is disabled, if {@code level} is
+	 * {@link Level#ERROR} or if the {@link FlushPolicy} says that a flush is due.
+	 * 
+	 * @param level - highest level of the entries written since the last commit
+	 */
+	static synchronized void commit(Level level) {
+		if(!smartflush || level.ordinal() >= Level.ERROR.ordinal() || flushPolicy.isDue(System.currentTimeMillis())) {
+			flush();
+		}
+	}
+	
+	static synchronized void flush() {
+		if(Logger.level == Level.NONE || channel == null || !channel.isOpen()) {
+			return;
+		}
 		try {
-			writer.write(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + " | " + level.name() + whitespaces.substring(0, maxStringLength.name().length() - level.name().length()) + " | " + message);
-			writer.newLine();
+			ClockEvents.LogFlush event = null;
+			if(ClockEvents.isRecording()) {
+				event = new ClockEvents.LogFlush();
+				event.begin();
+			}
+			int bytes = encoder.pending();
+			encoder.drain(channel);
+			flushPolicy.flushed();
+			if(bytes > 0) {
+				ClockMonitor.get().logFlushed(bytes);
+			}
+			if(event != null && event.shouldCommit()) {
+				event.bytes = bytes;
+				event.commit();
+			}
 		} catch (IOException e) {
 			System.out.println("Could not write to logfile! Disabling further logging for this instance.");
 			Logger.level = Level.NONE;
 		}
 	}
 	
-	private static BufferedWriter openLoggingStream() throws IOException {		
-		fileWriter = new FileWriter(logfile, true);
-		
-		return new BufferedWriter(fileWriter);
+	/**
+	 * Flushes pending entries whose delay exceeded the one allowed by the {@link FlushPolicy}. Runs periodically
+	 * while smartflush is enabled so entries are flushed even if no further entries are written.
+	 */
+	private static synchronized void flushIfDue() {
+		if(flushPolicy.isDue(System.currentTimeMillis())) {
+			flush();
+		}
+	}
+	
+	/**
+	 * Opens the log-file of a lazily initiated logger on the first entry and disables logging if that fails.
+	 * 
+	 * @return {@code true} if the log-file is open
+	 */
+	private static boolean isOpen() {
+		if(pendingOpen) {
+			try {
+				open();
+			} catch (IOException e) {
+				System.out.println("Could not open logfile! Disabling further logging for this instance.");
+				Logger.level = Level.NONE;
+				return false;
+			}
+		}
+		return channel != null;
 	}
 	
 	static void enableSmartflush() {
+		enableSmartflush(new FlushPolicy());
+	}
+	
+	/**
+	 * Groups the flushes of the log-file according to {@code policy} instead of flushing after every entry.
+	 * Entries with level {@link Level#ERROR} are always flushed immediately.
+	 * 
+	 * @param policy - policy that decides when pending entries are flushed
+	 */
+	static synchronized void enableSmartflush(FlushPolicy policy) {
+		flushPolicy = policy;
 		smartflush = true;
+		if(flushScheduler == null) {
+			flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "Logger-Flush-Thread");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long period = Math.max(1, policy.getMaxDelayMillis() / 4);
+			flushScheduler.scheduleAtFixedRate(Logger::flushIfDue, period, period, TimeUnit.MILLISECONDS);
+		}
 	}
 	
-	static void disableSmartflush() {
+	/**
+	 * Flushes all pending entries and returns to flushing after every entry.
+	 */
+	static synchronized void disableSmartflush() {
 		smartflush = false;
+		if(flushScheduler != null) {
+			flushScheduler.shutdownNow();
+			flushScheduler = null;
+		}
+		flush();
+	}
+	
+	/**
+	 * Replaces the de-duplication of repeated errors, e.g. to change its window.
+	 * 
+	 * @param fingerprints - the new de-duplication
+	 */
+	static void setErrorFingerprints(ErrorFingerprints fingerprints) {
+		errors = fingerprints;
+	}
+	
+	static synchronized FlushPolicy getFlushPolicy() {
+		return flushPolicy;
 	}
 
 	static Level getLevel() {
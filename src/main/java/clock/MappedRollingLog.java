@@ -0,0 +1,259 @@
+package clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Size-capped log appender that writes into a ring of preallocated, memory-mapped segment files. For a log-file
+ * {@code clock_2024.log} the segments are named {@code clock_2024.0.log}, {@code clock_2024.1.log} and so on.</p>
+ *
+ * <p>Every segment has a fixed size and is zero-filled beyond its last entry. If the current segment cannot hold
+ * the next write the appender rolls over to the following segment; after the last segment the oldest one is
+ * zero-filled and reused. The disk usage is therefore bounded by {@code segmentSize * segmentCount} bytes.
+ * Segments are never truncated, since another running Clock may still have them mapped and would fail on its next
+ * write.</p>
+ *
+ * <p>The last {@value #TRAILER_SIZE} bytes of a segment hold a trailer with the sequence number of the segment,
+ * which grows with every roll-over; the segment with the highest sequence is the current one. The trailer starts
+ * with a zero byte and contains no line breaks, so readers stop in front of it like at any other unwritten
+ * rest.</p>
+ *
+ * <p>Instances are not thread-safe; the {@link Logger} only uses them while holding its lock.</p>
+ */
+class MappedRollingLog implements WritableByteChannel {
+
+	static final int TRAILER_SIZE = 24;
+	private static final byte[] TRAILER_MAGIC = "CLKS".getBytes(StandardCharsets.US_ASCII);
+	private static final int SEQUENCE_DIGITS = 16;
+
+	private final File[] segments;
+	private final long segmentSize;
+	private final int capacity;
+
+	private int current;
+	private long sequence;
+	private FileChannel channel;
+	private MappedByteBuffer mapped;
+
+	/**
+	 * Opens the segments belonging to {@code logfile} and continues writing behind the newest entry.
+	 *
+	 * @param logfile - log-file the segment names are derived from
+	 * @param segmentSize - size of a single segment in bytes
+	 * @param segmentCount - number of segments in the ring
+	 * @throws IOException if a segment could not be opened or mapped
+	 */
+	MappedRollingLog(File logfile, long segmentSize, int segmentCount) throws IOException {
+		if(segmentSize <= TRAILER_SIZE || segmentSize > Integer.MAX_VALUE || segmentCount < 1) {
+			throw new IllegalArgumentException("Segments have to be between " + (TRAILER_SIZE + 1) + " and " + Integer.MAX_VALUE
+					+ " bytes large and at least one has to exist but are " + segmentSize + " bytes large and " + segmentCount + " exist.");
+		}
+		this.segmentSize = segmentSize;
+		this.capacity = (int) segmentSize - TRAILER_SIZE;
+		this.segments = segmentFiles(logfile, segmentCount);
+
+		int newest = 0;
+		long highest = -1;
+		for(int i = 0; i < segments.length; i++) {
+			long found = readSequence(segments[i], segmentSize);
+			if(found > highest) {
+				newest = i;
+				highest = found;
+			}
+		}
+		sequence = Math.max(highest, 0);
+		open(newest, false);
+	}
+
+	/**
+	 * Returns the segment files that belong to {@code logfile}.
+	 *
+	 * @param logfile - log-file the segment names are derived from
+	 * @param segmentCount - number of segments in the ring
+	 * @return array of segment files in ring order
+	 */
+	static File[] segmentFiles(File logfile, int segmentCount) {
+		String name = logfile.getName();
+		int extension = name.lastIndexOf('.');
+		String base = extension < 0 ? name : name.substring(0, extension);
+		String suffix = extension < 0 ? "" : name.substring(extension);
+
+		File[] files = new File[segmentCount];
+		for(int i = 0; i < segmentCount; i++) {
+			files[i] = new File(logfile.getParentFile(), base + "." + i + suffix);
+		}
+		return files;
+	}
+
+	@Override
+	public int write(ByteBuffer src) throws IOException {
+		int written = src.remaining();
+		if(written > mapped.remaining() && written <= capacity) {
+			// keep the entries of a single write together in one segment
+			roll();
+		}
+		while(src.hasRemaining()) {
+			if(!mapped.hasRemaining()) {
+				roll();
+			}
+			int chunk = Math.min(src.remaining(), mapped.remaining());
+			int limit = src.limit();
+			src.limit(src.position() + chunk);
+			mapped.put(src);
+			src.limit(limit);
+		}
+		return written;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return channel != null && channel.isOpen();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(channel != null) {
+			mapped.force();
+			channel.close();
+			channel = null;
+			mapped = null;
+		}
+	}
+
+	/**
+	 * Clears the entries of a segment by zero-filling it in place. The size and the trailer of the segment are
+	 * kept, so another running Clock that still has it mapped can go on writing.
+	 *
+	 * @param segment - segment file to clear
+	 * @throws IOException if the segment could not be written
+	 */
+	static void clear(File segment) throws IOException {
+		try(FileChannel clearing = FileChannel.open(segment.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long size = clearing.size();
+			long end = readSequence(clearing, size) < 0 ? size : size - TRAILER_SIZE;
+			ByteBuffer zeros = ByteBuffer.allocate(64 * 1024);
+			for(long position = 0; position < end; ) {
+				zeros.clear().limit((int) Math.min(zeros.capacity(), end - position));
+				position += clearing.write(zeros, position);
+			}
+		}
+	}
+
+	private void roll() throws IOException {
+		sequence++;
+		open((current + 1) % segments.length, true);
+	}
+
+	/**
+	 * Maps the segment at {@code index} and positions the buffer behind its last entry.
+	 *
+	 * @param index - index of the segment to open
+	 * @param reset - {@code true} if the entries of the segment should be zero-filled before writing
+	 */
+	private void open(int index, boolean reset) throws IOException {
+		close();
+		current = index;
+		channel = FileChannel.open(segments[index].toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		LogArchive.lockForWriting(channel);
+		mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		boolean outdated = reset || parseSequence(mapped, capacity) != sequence;
+		mapped.limit(capacity);
+		int end = findEnd(mapped);
+		if(reset) {
+			for(int i = 0; i < end; i++) {
+				mapped.put(i, (byte) 0);
+			}
+			end = 0;
+		}
+		// the trailer is written after zero-filling, so an interrupted roll-over keeps the previous segment current
+		if(outdated) {
+			writeSequence(mapped, capacity, sequence);
+		}
+		mapped.position(end);
+	}
+
+	/**
+	 * Reads the sequence number from the trailer of a segment file.
+	 *
+	 * @return sequence number of the segment or -1 if it does not exist or has no valid trailer
+	 */
+	private static long readSequence(File segment, long segmentSize) throws IOException {
+		if(segment.length() != segmentSize) {
+			return -1;
+		}
+		try(FileChannel reading = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+			return readSequence(reading, segmentSize);
+		}
+	}
+
+	private static long readSequence(FileChannel channel, long size) throws IOException {
+		if(size <= TRAILER_SIZE) {
+			return -1;
+		}
+		ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+		while(trailer.hasRemaining() && channel.read(trailer, size - TRAILER_SIZE + trailer.position()) > 0) {
+			// read the whole trailer
+		}
+		return trailer.hasRemaining() ? -1 : parseSequence(trailer, 0);
+	}
+
+	/**
+	 * Parses a trailer: a zero byte, the magic {@code CLKS} and the sequence as hexadecimal digits, which unlike a
+	 * binary number can never contain a line break.
+	 */
+	private static long parseSequence(ByteBuffer buffer, int offset) {
+		if(buffer.get(offset) != 0) {
+			return -1;
+		}
+		for(int i = 0; i < TRAILER_MAGIC.length; i++) {
+			if(buffer.get(offset + 1 + i) != TRAILER_MAGIC[i]) {
+				return -1;
+			}
+		}
+		long value = 0;
+		for(int i = 0; i < SEQUENCE_DIGITS; i++) {
+			int digit = Character.digit(buffer.get(offset + 1 + TRAILER_MAGIC.length + i), 16);
+			if(digit < 0) {
+				return -1;
+			}
+			value = value << 4 | digit;
+		}
+		return value;
+	}
+
+	private static void writeSequence(MappedByteBuffer buffer, int offset, long sequence) {
+		buffer.limit(buffer.capacity());
+		buffer.put(offset, (byte) 0);
+		for(int i = 0; i < TRAILER_MAGIC.length; i++) {
+			buffer.put(offset + 1 + i, TRAILER_MAGIC[i]);
+		}
+		for(int i = 0; i < SEQUENCE_DIGITS; i++) {
+			buffer.put(offset + 1 + TRAILER_MAGIC.length + i, (byte) Character.forDigit((int) (sequence >>> (4 * (SEQUENCE_DIGITS - 1 - i))) & 0xF, 16));
+		}
+		buffer.limit(offset);
+	}
+
+	/**
+	 * Finds the first zero byte of a segment. Encoded log entries never contain zero bytes, so the written part of
+	 * a segment is a prefix of non-zero bytes and the end can be found by binary search.
+	 */
+	private static int findEnd(MappedByteBuffer buffer) {
+		int low = 0;
+		int high = buffer.limit();
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(buffer.get(middle) != 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
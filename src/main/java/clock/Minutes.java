@@ -0,0 +1,148 @@
+package clock;
+
+import java.time.LocalTime;
+
+/**
+ * <p>Arithmetic on times of day and durations packed into a single {@code int} of minutes, replacing the deprecated
+ * {@code Time} and {@code TimeBuilder}. A time of day is its minute of the day between 0 and 1439, a duration
+ * is a signed number of minutes. None of the methods allocate.</p>
+ *
+ * <p>Adding to or subtracting from a time of day wraps around midnight like {@link LocalTime#plusMinutes(long)};
+ * the day-crossing helpers tell how many midnights such an operation passed.</p>
+ */
+final class Minutes {
+
+	static final int PER_HOUR = 60;
+	static final int PER_DAY = 24 * PER_HOUR;
+
+	private Minutes() {
+	}
+
+	/**
+	 * @param hours - hours between 0 and 23
+	 * @param minutes - minutes between 0 and 59
+	 * @return the packed time of day
+	 */
+	static int of(int hours, int minutes) {
+		if(hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+			throw new IllegalArgumentException("Time has to be between 00:00 and 23:59 but is " + hours + ":" + minutes + ".");
+		}
+		return hours * PER_HOUR + minutes;
+	}
+
+	/**
+	 * @param time - time to be packed; seconds are truncated
+	 * @return the packed time of day
+	 */
+	static int of(LocalTime time) {
+		return time.getHour() * PER_HOUR + time.getMinute();
+	}
+
+	/**
+	 * @param minuteOfDay - packed time of day
+	 * @return the time of day as {@link LocalTime}
+	 */
+	static LocalTime toLocalTime(int minuteOfDay) {
+		return LocalTime.of(hour(minuteOfDay), minute(minuteOfDay));
+	}
+
+	static int hour(int minuteOfDay) {
+		return minuteOfDay / PER_HOUR;
+	}
+
+	static int minute(int minuteOfDay) {
+		return minuteOfDay % PER_HOUR;
+	}
+
+	/**
+	 * Adds a duration to a time of day, wrapping around midnight.
+	 *
+	 * @param minuteOfDay - packed time of day
+	 * @param minutes - duration in minutes, may be negative
+	 * @return the packed resulting time of day
+	 */
+	static int plus(int minuteOfDay, long minutes) {
+		return (int) Math.floorMod(minuteOfDay + minutes, (long) PER_DAY);
+	}
+
+	/**
+	 * Subtracts a duration from a time of day, wrapping around midnight.
+	 *
+	 * @param minuteOfDay - packed time of day
+	 * @param minutes - duration in minutes, may be negative
+	 * @return the packed resulting time of day
+	 */
+	static int minus(int minuteOfDay, long minutes) {
+		return plus(minuteOfDay, -minutes);
+	}
+
+	/**
+	 * Returns the minutes from {@code from} forward to the next occurrence of {@code to}, crossing midnight if
+	 * {@code to} is before {@code from}.
+	 *
+	 * @param from - packed start time of day
+	 * @param to - packed end time of day
+	 * @return duration between 0 and 1439 minutes
+	 */
+	static int until(int from, int to) {
+		return from > to ? to + PER_DAY - from : to - from;
+	}
+
+	/**
+	 * Returns the signed minutes between two times of the same day like {@code LocalTime.until(.., MINUTES)}.
+	 *
+	 * @param from - packed start time of day
+	 * @param to - packed end time of day
+	 * @return duration between -1439 and 1439 minutes
+	 */
+	static int between(int from, int to) {
+		return to - from;
+	}
+
+	/**
+	 * @return negative if {@code a} is before {@code b}, positive if after and {@code 0} if equal
+	 */
+	static int compare(int a, int b) {
+		return Integer.compare(a, b);
+	}
+
+	/**
+	 * @param minuteOfDay - packed time of day
+	 * @param minutes - duration in minutes, may be negative
+	 * @return number of days the addition of {@code minutes} moves forward (or backward if negative)
+	 */
+	static int dayOffset(int minuteOfDay, long minutes) {
+		return (int) Math.floorDiv(minuteOfDay + minutes, (long) PER_DAY);
+	}
+
+	/**
+	 * @param minuteOfDay - packed time of day
+	 * @param minutes - duration in minutes, may be negative
+	 * @return {@code true} if adding {@code minutes} passes midnight
+	 */
+	static boolean crossesMidnight(int minuteOfDay, long minutes) {
+		return dayOffset(minuteOfDay, minutes) != 0;
+	}
+
+	/**
+	 * Appends the time of day in the form "hh:mm", like {@link LocalTime#toString()} for full minutes.
+	 *
+	 * @param builder - builder to append to
+	 * @param minuteOfDay - packed time of day
+	 * @return {@code builder}
+	 */
+	static StringBuilder appendTo(StringBuilder builder, int minuteOfDay) {
+		int hour = hour(minuteOfDay);
+		int minute = minute(minuteOfDay);
+		return builder.append((char) ('0' + hour / 10)).append((char) ('0' + hour % 10)).append(':')
+				.append((char) ('0' + minute / 10)).append((char) ('0' + minute % 10));
+	}
+
+	/**
+	 * @param minuteOfDay - packed time of day
+	 * @return the time of day in the form "hh:mm"
+	 */
+	static String toString(int minuteOfDay) {
+		return appendTo(new StringBuilder(5), minuteOfDay).toString();
+	}
+}
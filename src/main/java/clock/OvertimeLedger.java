@@ -0,0 +1,410 @@
+package clock;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Compact binary ledger of finished timer sessions that is stored next to the log-file. Every session is a
+ * fixed-width record of {@value #RECORD_SIZE} bytes:</p>
+ * <ul>
+ * 	<li>{@code int} epoch day of the session</li>
+ * 	<li>{@code short} start, end and break as minutes of the day</li>
+ * 	<li>{@code short} padding</li>
+ * 	<li>{@code int} overtime of the session in minutes (negative if the session was shorter than the timer)</li>
+ * </ul>
+ * <p>The records are followed by a trailer of {@value #TRAILER_SIZE} bytes holding the running total of the
+ * overtime, the number of records and a magic number. Reading the accumulated overtime therefore only reads
+ * the trailer and range queries use a binary search over the records, which are kept in chronological order.</p>
+ *
+ * <p>Every day has at most one session: the last timer of a day, which knows the overtime and freetime given for
+ * the day, replaces the sessions recorded before. Several processes can share the ledger, since sessions are
+ * appended under a lock of the file after reading its trailer again.</p>
+ */
+class OvertimeLedger implements Closeable {
+
+	static final int RECORD_SIZE = 16;
+	static final int TRAILER_SIZE = 16;
+
+	private static final int MAGIC = 0x434C4B4C; // "CLKL"
+	private static final String SESSION_MESSAGE = "Session from %s to %s with %s break, overtime %d minutes.";
+	private static final Pattern SESSION_PATTERN = Pattern.compile(
+			"^(\\d{4}-\\d{2}-\\d{2}) \\d{2}:\\d{2}:\\d{2} \\| INFO +\\| Session from (\\d{2}:\\d{2}) to (\\d{2}:\\d{2}) with (\\d{2}:\\d{2}) break, overtime (-?\\d+) minutes\\.$");
+
+	private final File file;
+	private final FileChannel channel;
+	private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE + TRAILER_SIZE);
+
+	private long totalOvertime;
+	private int size;
+
+	/**
+	 * Opens the ledger at {@code file} and creates an empty one if it does not exist.
+	 *
+	 * @param file - file of the ledger
+	 * @throws IOException if the file could not be opened or is no valid ledger
+	 */
+	OvertimeLedger(File file) throws IOException {
+		this.file = file;
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			FileLock lock = channel.lock();
+			try {
+				if(channel.size() == 0) {
+					writeTrailer(0);
+				}
+				readTrailer();
+			} finally {
+				lock.release();
+			}
+		} catch(IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the ledger file that belongs to {@code logfile}, e.g. {@code clock_2024.ledger} for {@code clock_2024.log}.
+	 *
+	 * @param logfile - log-file the ledger belongs to
+	 * @return the ledger file
+	 */
+	static File ledgerFile(File logfile) {
+		String name = logfile.getName();
+		int extension = name.lastIndexOf('.');
+		return new File(logfile.getParentFile(), (extension < 0 ? name : name.substring(0, extension)) + ".ledger");
+	}
+
+	/**
+	 * Builds the log message for a finished session that {@link #rebuild(File, File...)} can read back.
+	 */
+	static String sessionMessage(LocalTime start, LocalTime end, LocalTime breaktime, long overtimeMinutes) {
+		return String.format(Locale.ROOT, SESSION_MESSAGE, start, end, breaktime, overtimeMinutes);
+	}
+
+	/**
+	 * Recreates the ledger at {@code file} from the session messages found in {@code logfiles}. Of the sessions of
+	 * a date only the last message is kept.
+	 *
+	 * @param file - file of the ledger to be recreated
+	 * @param logfiles - log-files to read; archived log-files are read from their {@link LogArchive}, files that do not exist are skipped
+	 * @return the number of sessions written to the ledger
+	 * @throws IOException if a log-file could not be read or the ledger could not be written
+	 */
+	static int rebuild(File file, File... logfiles) throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		for(File logfile : logfiles) {
+			File archive = LogArchive.archiveFile(logfile);
+			InputStream in;
+			if(logfile.exists()) {
+				in = Files.newInputStream(logfile.toPath());
+			} else if(archive.exists()) {
+				in = new LogArchive(archive).inputStream();
+			} else {
+				continue;
+			}
+			try(BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+				String line;
+				while((line = reader.readLine()) != null) {
+					Matcher matcher = SESSION_PATTERN.matcher(line.replace("\0", ""));
+					if(matcher.matches()) {
+						LocalTime start = LocalTime.parse(matcher.group(2));
+						LocalTime end = LocalTime.parse(matcher.group(3));
+						LocalDate date = LocalDate.parse(matcher.group(1));
+						if(end.isBefore(start)) {
+							date = date.minusDays(1); // session started on the day before it was logged
+						}
+						entries.add(new Entry(date, start, end, LocalTime.parse(matcher.group(4)), Long.parseLong(matcher.group(5))));
+					}
+				}
+			}
+		}
+		entries.sort(Comparator.comparing(Entry::getDate));
+
+		Files.deleteIfExists(file.toPath());
+		try(OvertimeLedger ledger = new OvertimeLedger(file)) {
+			for(Entry entry : entries) {
+				ledger.appendOrReplaceLast(entry.getDate(), entry.getStart(), entry.getEnd(), entry.getBreaktime(), entry.getOvertime());
+			}
+			return ledger.size();
+		}
+	}
+
+	/**
+	 * Appends a session to the ledger and updates the running total. Sessions appended by other processes since the
+	 * last access are read first.
+	 *
+	 * @param date - date the session started
+	 * @param start - start of the session
+	 * @param end - end of the session
+	 * @param breaktime - length of the breaks
+	 * @param overtimeMinutes - overtime of the session in minutes
+	 * @throws IOException if the ledger could not be written
+	 * @throws IllegalArgumentException if {@code date} is before the date of the last session
+	 */
+	synchronized void append(LocalDate date, LocalTime start, LocalTime end, LocalTime breaktime, long overtimeMinutes) throws IOException {
+		FileLock lock = channel.lock();
+		try {
+			readTrailer();
+			appendLocked(date, start, end, breaktime, overtimeMinutes);
+		} finally {
+			lock.release();
+		}
+	}
+
+	/**
+	 * Appends a session like {@link #append(LocalDate, LocalTime, LocalTime, LocalTime, long)}, but replaces the last
+	 * session if it has the same date. A timer that is resumed or started again on the same day records its session
+	 * again when it ends, which then replaces the session recorded before.
+	 *
+	 * @param date - date the session started
+	 * @param start - start of the session
+	 * @param end - end of the session
+	 * @param breaktime - length of the breaks
+	 * @param overtimeMinutes - overtime of the session in minutes
+	 * @throws IOException if the ledger could not be written
+	 * @throws IllegalArgumentException if {@code date} is before the date of the last session
+	 */
+	synchronized void appendOrReplaceLast(LocalDate date, LocalTime start, LocalTime end, LocalTime breaktime, long overtimeMinutes) throws IOException {
+		FileLock lock = channel.lock();
+		try {
+			readTrailer();
+			if(size > 0) {
+				Entry last = get(size - 1);
+				if(last.getDate().equals(date)) {
+					totalOvertime -= last.getOvertime();
+					size--;
+				}
+			}
+			appendLocked(date, start, end, breaktime, overtimeMinutes);
+		} finally {
+			lock.release();
+		}
+	}
+
+	private void appendLocked(LocalDate date, LocalTime start, LocalTime end, LocalTime breaktime, long overtimeMinutes) throws IOException {
+		if(size > 0 && get(size - 1).getDate().isAfter(date)) {
+			throw new IllegalArgumentException("Sessions have to be appended in chronological order but " + date + " is before the last session.");
+		}
+
+		record.clear();
+		record.putInt((int) date.toEpochDay());
+		record.putShort((short) minuteOfDay(start));
+		record.putShort((short) minuteOfDay(end));
+		record.putShort((short) minuteOfDay(breaktime));
+		record.putShort((short) 0);
+		record.putInt(Math.toIntExact(overtimeMinutes));
+		putTrailer(record, totalOvertime + overtimeMinutes, size + 1);
+		record.flip();
+		writeFully(record, (long) size * RECORD_SIZE);
+
+		totalOvertime += overtimeMinutes;
+		size++;
+	}
+
+	/**
+	 * @return accumulated overtime of all sessions in minutes
+	 */
+	synchronized long getTotalOvertime() {
+		return totalOvertime;
+	}
+
+	/**
+	 * @return number of sessions in the ledger
+	 */
+	synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @param index - index of the session
+	 * @return the session at {@code index}
+	 * @throws IOException if the ledger could not be read
+	 */
+	synchronized Entry get(int index) throws IOException {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for ledger with " + size + " sessions.");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+		readFully(buffer, (long) index * RECORD_SIZE);
+		buffer.flip();
+		LocalDate date = LocalDate.ofEpochDay(buffer.getInt());
+		LocalTime start = ofMinuteOfDay(buffer.getShort());
+		LocalTime end = ofMinuteOfDay(buffer.getShort());
+		LocalTime breaktime = ofMinuteOfDay(buffer.getShort());
+		buffer.getShort();
+		return new Entry(date, start, end, breaktime, buffer.getInt());
+	}
+
+	/**
+	 * Returns all sessions that started between {@code from} and {@code to} (both inclusive).
+	 *
+	 * @param from - first date of the range
+	 * @param to - last date of the range
+	 * @return list of the sessions in chronological order
+	 * @throws IOException if the ledger could not be read
+	 */
+	synchronized List<Entry> range(LocalDate from, LocalDate to) throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		for(int i = lowerBound(from.toEpochDay()); i < size; i++) {
+			Entry entry = get(i);
+			if(entry.getDate().isAfter(to)) {
+				break;
+			}
+			entries.add(entry);
+		}
+		return entries;
+	}
+
+	/**
+	 * Sums the overtime of all sessions that started between {@code from} and {@code to} (both inclusive).
+	 *
+	 * @param from - first date of the range
+	 * @param to - last date of the range
+	 * @return overtime in minutes
+	 * @throws IOException if the ledger could not be read
+	 */
+	synchronized long overtimeBetween(LocalDate from, LocalDate to) throws IOException {
+		long sum = 0;
+		for(Entry entry : range(from, to)) {
+			sum += entry.getOvertime();
+		}
+		return sum;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Finds the index of the first session whose epoch day is not before {@code epochDay}.
+	 */
+	private int lowerBound(long epochDay) throws IOException {
+		ByteBuffer day = ByteBuffer.allocate(Integer.BYTES);
+		int low = 0;
+		int high = size;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			day.clear();
+			readFully(day, (long) middle * RECORD_SIZE);
+			if(day.getInt(0) < epochDay) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private void readTrailer() throws IOException {
+		long length = channel.size();
+		if(length < TRAILER_SIZE || (length - TRAILER_SIZE) % RECORD_SIZE != 0) {
+			throw new IOException("Ledger \"" + file + "\" has an invalid length of " + length + " bytes.");
+		}
+		ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+		readFully(trailer, length - TRAILER_SIZE);
+		trailer.flip();
+		totalOvertime = trailer.getLong();
+		size = trailer.getInt();
+		if(trailer.getInt() != MAGIC || (long) size * RECORD_SIZE != length - TRAILER_SIZE) {
+			throw new IOException("Ledger \"" + file + "\" has an invalid trailer.");
+		}
+	}
+
+	private void writeTrailer(int records) throws IOException {
+		record.clear();
+		putTrailer(record, totalOvertime, records);
+		record.flip();
+		writeFully(record, (long) records * RECORD_SIZE);
+	}
+
+	private static void putTrailer(ByteBuffer buffer, long total, int records) {
+		buffer.putLong(total);
+		buffer.putInt(records);
+		buffer.putInt(MAGIC);
+	}
+
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of ledger.");
+			}
+		}
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+	}
+
+	private static int minuteOfDay(LocalTime time) {
+		return time.getHour() * 60 + time.getMinute();
+	}
+
+	private static LocalTime ofMinuteOfDay(int minuteOfDay) {
+		return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+	}
+
+	/**
+	 * Immutable view of a single session in the ledger.
+	 */
+	static final class Entry {
+		private final LocalDate date;
+		private final LocalTime start;
+		private final LocalTime end;
+		private final LocalTime breaktime;
+		private final long overtime;
+
+		Entry(LocalDate date, LocalTime start, LocalTime end, LocalTime breaktime, long overtime) {
+			this.date = date;
+			this.start = start;
+			this.end = end;
+			this.breaktime = breaktime;
+			this.overtime = overtime;
+		}
+
+		LocalDate getDate() {
+			return date;
+		}
+
+		LocalTime getStart() {
+			return start;
+		}
+
+		LocalTime getEnd() {
+			return end;
+		}
+
+		LocalTime getBreaktime() {
+			return breaktime;
+		}
+
+		long getOvertime() {
+			return overtime;
+		}
+
+		@Override
+		public String toString() {
+			return "Entry [date=" + date + ", start=" + start + ", end=" + end + ", breaktime=" + breaktime + ", overtime=" + overtime + "]";
+		}
+	}
+}
@@ -0,0 +1,296 @@
+package clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * <p>Calculates the ending of a timer like {@link Deadline#endingOf(int, int, int, int, int)} for every row of a
+ * CSV file. Input rows have the form {@code employee,start,break,overtime,freetime}, where the times are given
+ * like for the console arguments ("hh:mm", "h:mm", "mm" or "m"). A first line starting with {@code employee,}
+ * is treated as header. Quoted fields are not supported.</p>
+ *
+ * <p>Every valid row is written as {@code employee,end,days,overtime}: the ending, the number of midnights
+ * between start and ending and the net overtime (overtime minus freetime) in minutes. Invalid rows are skipped
+ * and counted.</p>
+ *
+ * <p>The input is split into chunks at line boundaries by {@link LineChunks}. Each chunk is memory-mapped and
+ * parsed straight from the mapping on its own thread of the common {@link ForkJoinPool}; only a few chunks are in
+ * memory at any time and their results are written in input order, so files of any size can be processed.</p>
+ */
+class ShiftBatch {
+
+	static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+	private static final byte[] HEADER = "employee,".getBytes();
+	private static final byte[] OUTPUT_HEADER = "employee,end,days,overtime\n".getBytes();
+
+	private final int hours;
+	private final int chunkSize;
+	private final int chunksInFlight;
+
+	/**
+	 * @param hours - length of the timer in hours
+	 */
+	ShiftBatch(int hours) {
+		this(hours, DEFAULT_CHUNK_SIZE, 2 * ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * @param hours - length of the timer in hours
+	 * @param chunkSize - approximate size of a chunk in bytes; chunks are extended to the end of their last line
+	 * @param chunksInFlight - number of chunks that are converted in parallel before their results are written
+	 */
+	ShiftBatch(int hours, int chunkSize, int chunksInFlight) {
+		if(chunkSize < 1 || chunksInFlight < 1) {
+			throw new IllegalArgumentException("Chunk size and chunks in flight have to be positive but are " + chunkSize + " and " + chunksInFlight + ".");
+		}
+		this.hours = hours;
+		this.chunkSize = chunkSize;
+		this.chunksInFlight = chunksInFlight;
+	}
+
+	/**
+	 * Converts all rows of {@code input} and writes the results to {@code output}, replacing its content.
+	 *
+	 * @param input - CSV file with one row per timer
+	 * @param output - CSV file the results are written to
+	 * @return statistics of the run
+	 * @throws IOException if reading or writing failed
+	 */
+	Result run(File input, File output) throws IOException {
+		long started = System.nanoTime();
+		long rows = 0;
+		long invalid = 0;
+
+		try(FileChannel in = FileChannel.open(input.toPath(), StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(output.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			long[] boundaries = LineChunks.split(in, 0, in.size(), chunkSize);
+			writeFully(out, ByteBuffer.wrap(OUTPUT_HEADER));
+
+			for(int first = 0; first < boundaries.length - 1; first += chunksInFlight) {
+				int last = Math.min(first + chunksInFlight, boundaries.length - 1);
+				Chunk[] chunks;
+				try {
+					chunks = IntStream.range(first, last).parallel()
+							.mapToObj(i -> convert(in, boundaries[i], boundaries[i + 1], i == 0))
+							.toArray(Chunk[]::new);
+				} catch(UncheckedIOException e) {
+					throw e.getCause();
+				}
+				for(Chunk chunk : chunks) {
+					writeFully(out, ByteBuffer.wrap(chunk.bytes, 0, chunk.length));
+					rows += chunk.rows;
+					invalid += chunk.invalid;
+				}
+			}
+		}
+		return new Result(rows, invalid, System.nanoTime() - started);
+	}
+
+	private Chunk convert(FileChannel in, long from, long to, boolean first) {
+		int length = (int) (to - from);
+		MappedByteBuffer bytes;
+		try {
+			bytes = in.map(FileChannel.MapMode.READ_ONLY, from, length);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		Chunk chunk = new Chunk(length + length / 4 + 64);
+		int start = 0;
+		if(first && startsWith(bytes, 0, length, HEADER)) {
+			start = lineEnd(bytes, 0, length) + 1;
+		}
+		while(start < length) {
+			int end = lineEnd(bytes, start, length);
+			int valueEnd = end > start && bytes.get(end - 1) == '\r' ? end - 1 : end;
+			if(valueEnd > start) {
+				convertRow(bytes, start, valueEnd, chunk);
+			}
+			start = end + 1;
+		}
+		return chunk;
+	}
+
+	/**
+	 * Converts the row from index {@code from} to {@code to - 1} of {@code bytes} and appends the result to {@code chunk}.
+	 */
+	private void convertRow(ByteBuffer bytes, int from, int to, Chunk chunk) {
+		int employeeEnd = field(bytes, from, to);
+		int startEnd = field(bytes, employeeEnd + 1, to);
+		int breakEnd = field(bytes, startEnd + 1, to);
+		int overtimeEnd = field(bytes, breakEnd + 1, to);
+		if(overtimeEnd >= to) {
+			chunk.invalid++;
+			return;
+		}
+		int start = LocalTimeParser.parseMinuteOfDay(bytes, employeeEnd + 1, startEnd - employeeEnd - 1);
+		int breaktime = LocalTimeParser.parseMinuteOfDay(bytes, startEnd + 1, breakEnd - startEnd - 1);
+		int overtime = LocalTimeParser.parseMinuteOfDay(bytes, breakEnd + 1, overtimeEnd - breakEnd - 1);
+		int freetime = LocalTimeParser.parseMinuteOfDay(bytes, overtimeEnd + 1, to - overtimeEnd - 1);
+		if(start == LocalTimeParser.INVALID || breaktime == LocalTimeParser.INVALID || overtime == LocalTimeParser.INVALID || freetime == LocalTimeParser.INVALID) {
+			chunk.invalid++;
+			return;
+		}
+
+		long duration = (long) hours * Minutes.PER_HOUR + breaktime + overtime - freetime;
+		chunk.append(bytes, from, employeeEnd - from);
+		chunk.append((byte) ',');
+		chunk.appendTime(Deadline.endingOf(start, hours, breaktime, overtime, freetime));
+		chunk.append((byte) ',');
+		chunk.appendNumber(Minutes.dayOffset(start, duration));
+		chunk.append((byte) ',');
+		chunk.appendNumber(overtime - freetime);
+		chunk.append((byte) '\n');
+		chunk.rows++;
+	}
+
+	/**
+	 * @return index of the next comma at or after {@code from}; {@code to} if there is none
+	 */
+	private static int field(ByteBuffer bytes, int from, int to) {
+		int i = from;
+		while(i < to && bytes.get(i) != ',') {
+			i++;
+		}
+		return i;
+	}
+
+	private static int lineEnd(ByteBuffer bytes, int from, int length) {
+		int i = from;
+		while(i < length && bytes.get(i) != '\n') {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean startsWith(ByteBuffer bytes, int from, int length, byte[] prefix) {
+		if(length - from < prefix.length) {
+			return false;
+		}
+		for(int i = 0; i < prefix.length; i++) {
+			if(bytes.get(from + i) != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			out.write(buffer);
+		}
+	}
+
+	/**
+	 * Converted rows of a single chunk.
+	 */
+	private static final class Chunk {
+		private byte[] bytes;
+		private int length = 0;
+		private long rows = 0;
+		private long invalid = 0;
+
+		private Chunk(int capacity) {
+			this.bytes = new byte[capacity];
+		}
+
+		private void ensureCapacity(int additional) {
+			if(bytes.length - length < additional) {
+				bytes = Arrays.copyOf(bytes, Math.max(length + additional, bytes.length * 2));
+			}
+		}
+
+		private void append(byte b) {
+			ensureCapacity(1);
+			bytes[length++] = b;
+		}
+
+		private void append(ByteBuffer source, int from, int count) {
+			ensureCapacity(count);
+			source.get(from, bytes, length, count);
+			length += count;
+		}
+
+		private void appendTime(int minuteOfDay) {
+			ensureCapacity(5);
+			int hour = Minutes.hour(minuteOfDay);
+			int minute = Minutes.minute(minuteOfDay);
+			bytes[length++] = (byte) ('0' + hour / 10);
+			bytes[length++] = (byte) ('0' + hour % 10);
+			bytes[length++] = ':';
+			bytes[length++] = (byte) ('0' + minute / 10);
+			bytes[length++] = (byte) ('0' + minute % 10);
+		}
+
+		private void appendNumber(int value) {
+			ensureCapacity(11);
+			if(value < 0) {
+				bytes[length++] = '-';
+				value = -value;
+			}
+			int digits = 1;
+			for(int rest = value / 10; rest > 0; rest /= 10) {
+				digits++;
+			}
+			for(int i = length + digits - 1; i >= length; i--) {
+				bytes[i] = (byte) ('0' + value % 10);
+				value /= 10;
+			}
+			length += digits;
+		}
+	}
+
+	/**
+	 * Statistics of a batch run.
+	 */
+	static final class Result {
+		private final long rows;
+		private final long invalid;
+		private final long nanos;
+
+		private Result(long rows, long invalid, long nanos) {
+			this.rows = rows;
+			this.invalid = invalid;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * @return number of rows converted
+		 */
+		long getRows() {
+			return rows;
+		}
+
+		/**
+		 * @return number of rows skipped because they were invalid
+		 */
+		long getInvalid() {
+			return invalid;
+		}
+
+		long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * @return converted and skipped rows per second of the whole run
+		 */
+		double getRowsPerSecond() {
+			return nanos == 0 ? 0 : (rows + invalid) * 1e9 / nanos;
+		}
+
+		@Override
+		public String toString() {
+			return "Result [rows=" + rows + ", invalid=" + invalid + ", millis=" + nanos / 1_000_000 + ", rowsPerSecond=" + Math.round(getRowsPerSecond()) + "]";
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package clock;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * <p>{@link TimeSource} whose time only moves while it is waited on: parking advances the wall-clock and the
+ * monotonic counter instantly, so an 8-hour timer including its overtime runs in milliseconds.</p>
+ *
+ * <p>Jumps of the wall-clock, like an NTP correction or a resume from suspend, can be scheduled to test how the
+ * timekeeping reacts to them. A wait that passes the point of a jump returns at that point. Instances are meant to
+ * be used by a single thread.</p>
+ */
+class SimulatedTimeSource extends TimeSource {
+
+	private final ZoneId zone;
+	private final java.time.Clock clock;
+
+	private long epochMillis;
+	private long nanos = 0;
+	private long jumpAtMillis = Long.MAX_VALUE;
+	private long jumpByMillis = 0;
+
+	/**
+	 * @param start - point in time the simulation starts at
+	 * @param zone - time zone of the simulation
+	 */
+	SimulatedTimeSource(Instant start, ZoneId zone) {
+		this.zone = zone;
+		this.epochMillis = start.toEpochMilli();
+		this.clock = new SimulatedClock(zone);
+	}
+
+	@Override
+	java.time.Clock clock() {
+		return clock;
+	}
+
+	@Override
+	long nanoTime() {
+		return nanos;
+	}
+
+	@Override
+	void parkNanos(long nanos) {
+		if(nanos <= 0) {
+			return;
+		}
+		long millis = nanos / 1_000_000;
+		if(epochMillis + millis >= jumpAtMillis) {
+			long untilJump = Math.max(0, jumpAtMillis - epochMillis);
+			advance(untilJump * 1_000_000);
+			epochMillis += jumpByMillis;
+			jumpAtMillis = Long.MAX_VALUE;
+			return;
+		}
+		advance(nanos);
+	}
+
+	/**
+	 * Moves the simulated time forward without any wait, like a busy thread would experience it.
+	 *
+	 * @param millis - milliseconds to move forward
+	 */
+	void advanceMillis(long millis) {
+		advance(millis * 1_000_000);
+	}
+
+	/**
+	 * Lets the wall-clock jump by {@code byMillis} when it reaches {@code atEpochMillis}; the monotonic counter is not affected.
+	 * Replaces a jump scheduled before.
+	 *
+	 * @param atEpochMillis - wall-clock time of the jump in milliseconds since epoch
+	 * @param byMillis - length of the jump; negative to jump backwards
+	 */
+	void scheduleJump(long atEpochMillis, long byMillis) {
+		this.jumpAtMillis = atEpochMillis;
+		this.jumpByMillis = byMillis;
+	}
+
+	private void advance(long advanceNanos) {
+		long before = nanos;
+		nanos += advanceNanos;
+		// keep the sub-millisecond part in the monotonic counter only
+		epochMillis += nanos / 1_000_000 - before / 1_000_000;
+	}
+
+	private final class SimulatedClock extends java.time.Clock {
+
+		private final ZoneId clockZone;
+
+		private SimulatedClock(ZoneId clockZone) {
+			this.clockZone = clockZone;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return clockZone;
+		}
+
+		@Override
+		public java.time.Clock withZone(ZoneId zone) {
+			return new SimulatedClock(zone);
+		}
+
+		@Override
+		public long millis() {
+			return epochMillis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(epochMillis);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SimulatedTimeSource [now=" + Instant.ofEpochMilli(epochMillis).atZone(zone) + ", nanos=" + nanos + "]";
+	}
+}
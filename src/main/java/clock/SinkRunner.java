@@ -0,0 +1,59 @@
+package clock;
+
+import java.lang.reflect.Method;
+
+/**
+ * <p>Creates the threads that run the subscribers of a {@link TickPublisher}, the status service and other
+ * background work, so a stalled terminal or disk cannot delay the timekeeping thread.</p>
+ *
+ * <p>These threads are virtual threads if the running JDK supports them and daemon platform threads otherwise.</p>
+ */
+class SinkRunner {
+
+	private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+	private static final Method BUILDER_NAME = lookup(builderClass(), "name", String.class);
+	private static final Method BUILDER_UNSTARTED = lookup(builderClass(), "unstarted", Runnable.class);
+
+	private SinkRunner() {
+	}
+
+	/**
+	 * Creates an unstarted virtual thread if the JDK supports them or an unstarted daemon platform thread otherwise.
+	 *
+	 * @param name - name of the thread
+	 * @param task - task of the thread
+	 * @return the unstarted thread
+	 */
+	static Thread newThread(String name, Runnable task) {
+		if(OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_UNSTARTED != null) {
+			try {
+				Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name);
+				return (Thread) BUILDER_UNSTARTED.invoke(builder, task);
+			} catch (ReflectiveOperationException e) {
+				// fall through to a platform thread
+			}
+		}
+		Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	private static Class<?> builderClass() {
+		try {
+			return Class.forName("java.lang.Thread$Builder");
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	private static Method lookup(Class<?> type, String name, Class<?>... parameters) {
+		if(type == null) {
+			return null;
+		}
+		try {
+			return type.getMethod(name, parameters);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package clock;
+
+import java.util.concurrent.Flow;
+
+import clock.TimerEvent.Kind;
+
+/**
+ * <p>Subscriber that hands the ticks of a {@link TickPublisher} to a {@link StateSink}. It requests one event at a
+ * time, so a sink that blocks only misses intermediate ticks, and logs the exceptions of the sink instead of
+ * ending the subscription.</p>
+ */
+class SinkSubscriber implements Flow.Subscriber<TimerEvent> {
+
+	private final StateSink sink;
+	private Flow.Subscription subscription;
+
+	/**
+	 * @param sink - sink that receives the state of every delivered tick
+	 */
+	SinkSubscriber(StateSink sink) {
+		this.sink = sink;
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		this.subscription = subscription;
+		subscription.request(1);
+	}
+
+	@Override
+	public void onNext(TimerEvent event) {
+		// the sinks derive changes of the state from the ticks themselves
+		if(event.getKind() == Kind.TICK) {
+			try {
+				sink.accept(event.getTimerState());
+			} catch (RuntimeException e) {
+				Logger.error(e);
+			}
+		}
+		subscription.request(1);
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		Logger.warning("Sink stopped receiving the timer state: {}", throwable.getMessage());
+	}
+
+	@Override
+	public void onComplete() {
+		// the timer ended
+	}
+}
@@ -0,0 +1,58 @@
+package clock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import clock.Logger.Level;
+
+/**
+ * <p>Training run for the class-data-sharing archive that the build creates next to the assembly jar. It loads
+ * the classes of the common commands: a short timer with console and log output, the help screen, verifying,
+ * querying and clearing the log and rebuilding the overtime ledger. The JVM of the build runs it with
+ * {@code -XX:ArchiveClassesAtExit} and a {@code user.home} inside the build directory, so the log-files of the
+ * user are never touched.</p>
+ */
+class StartupTraining {
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		File directory = new File(System.getProperty("user.home"), "Documents/Clock");
+		Files.createDirectories(directory.toPath());
+		File logfile = new File(directory, "clock_" + LocalDate.now().getYear() + ".log");
+
+		Logger.init(logfile, Level.INFO);
+		Logger.enableSmartflush();
+		// the timer opens the ledger at startup to show the accumulated overtime
+		OvertimeLedger ledger = new OvertimeLedger(OvertimeLedger.ledgerFile(logfile));
+		ledger.getTotalOvertime();
+		ledger.close();
+		try(TimerCheckpoint checkpoint = new TimerCheckpoint(TimerCheckpoint.checkpointFile(directory));
+				EmbeddedTimer timer = new EmbeddedTimer(LocalTime.now().minusHours(9), 8, LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, LocalTime.MIDNIGHT)) {
+			CountDownLatch ticked = new CountDownLatch(2);
+			ConsoleSink console = new ConsoleSink(false);
+			TickPublisher events = (TickPublisher) timer.events();
+			events.subscribe(new SinkSubscriber(state -> {
+				console.accept(state);
+				checkpoint.update(state.getState(), state.getCurrentOvertime(), System.currentTimeMillis());
+				ticked.countDown();
+			}), "Console-Sink");
+			events.subscribe(new SinkSubscriber(new LogSink()), "Log-Sink");
+			events.subscribe(new SinkSubscriber(state -> ticked.countDown()), "Status-Sink");
+			timer.start();
+			ticked.await(10, TimeUnit.SECONDS);
+			Logger.info(() -> OvertimeLedger.sessionMessage(LocalTime.of(8, 0), LocalTime.of(16, 45), LocalTime.of(0, 45), 0));
+		}
+		Logger.close();
+		System.out.println();
+
+		Clock.main(new String[] {"-h"});
+		Clock.main(new String[] {"-V"});
+		Clock.main(new String[] {"-Q", "--level", "INFO", "--contains", "Timer"});
+		Clock.main(new String[] {"-L"});
+		Clock.main(new String[] {"-c"});
+	}
+}
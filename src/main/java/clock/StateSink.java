@@ -0,0 +1,16 @@
+package clock;
+
+/**
+ * <p>Output of a timer, like the console or the log-file, that receives the published {@link TimerState}s on
+ * its own thread. A sink may block as long as it likes; it only misses intermediate states.</p>
+ */
+@FunctionalInterface
+interface StateSink {
+
+	/**
+	 * Handles the latest state of the timer.
+	 *
+	 * @param state - latest published state
+	 */
+	void accept(TimerState state);
+}
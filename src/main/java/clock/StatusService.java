@@ -0,0 +1,287 @@
+package clock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>Sink that serves the state of the timer as JSON to local clients, like dashboards or shell prompts:</p>
+ * <pre>
+ * {"state":"RUNNING","now":"14:02","ending":"16:45","remainingMinutes":163,"currentOvertime":0,"updated":"2024-03-01T13:02:00Z"}
+ * </pre>
+ * <p>The JSON is served by the HTTP server of the JDK on the loopback address and, if the JDK supports them, over a
+ * Unix domain socket that answers HTTP requests as well, e.g. {@code curl --unix-socket clock.sock http://localhost/}.
+ * Every exchange and connection runs on its own thread, a virtual thread if the JDK supports them.</p>
+ *
+ * <p>Whenever the state changes the complete responses are encoded once and published through a volatile field,
+ * so answering a request only writes bytes that already exist. Both paths answer {@code GET} and {@code HEAD}
+ * and reject every other method with {@code 405 Method Not Allowed}.</p>
+ */
+class StatusService implements StateSink, Closeable {
+
+	private static final int MAX_REQUEST_SIZE = 8 * 1024;
+	private static final byte[] HEAD_END = {'\r', '\n', '\r', '\n'};
+	private static final Method UNIX_ADDRESS_OF = unixAddressOf();
+	private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+	private static final byte[] METHOD_NOT_ALLOWED = ("HTTP/1.1 405 Method Not Allowed\r\nAllow: GET, HEAD\r\nContent-Length: 0\r\n"
+			+ "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+	private final int port;
+	private final Path socketPath;
+	private final TimeSource timeSource;
+	private final LongAdder requests = new LongAdder();
+
+	private volatile Snapshot snapshot = new Snapshot("{\"state\":null}");
+	private TimerState lastState = null;
+	private HttpServer http = null;
+	private ServerSocketChannel socket = null;
+
+	/**
+	 * @param port - port of the HTTP server on the loopback address; {@code 0} for any free port
+	 * @param socketPath - path of the Unix domain socket; {@code null} for none
+	 * @param timeSource - source of the time the served state was updated at
+	 */
+	StatusService(int port, Path socketPath, TimeSource timeSource) {
+		if(port < 0 || port > 65535) {
+			throw new IllegalArgumentException("Port has to be between 0 and 65535 but is " + port + ".");
+		}
+		this.port = port;
+		this.socketPath = socketPath;
+		this.timeSource = timeSource;
+	}
+
+	/**
+	 * Starts the HTTP server and the Unix domain socket. If the JDK does not support Unix domain sockets only the
+	 * HTTP server is started. A socket file that still accepts connections belongs to another running timer and is
+	 * left alone.
+	 *
+	 * @throws IOException if the port or the socket could not be bound or the socket is served by another timer
+	 */
+	void start() throws IOException {
+		// the server writes headers and body separately, which Nagle's algorithm would delay by the acknowledgement of the client
+		if(System.getProperty(NODELAY_PROPERTY) == null) {
+			System.setProperty(NODELAY_PROPERTY, "true");
+		}
+		http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		http.createContext("/", this::handle);
+		http.setExecutor(task -> SinkRunner.newThread("Status-Http", task).start());
+		http.start();
+
+		if(socketPath != null && UNIX_ADDRESS_OF != null) {
+			ProtocolFamily unix;
+			SocketAddress address;
+			try {
+				unix = StandardProtocolFamily.valueOf("UNIX");
+				address = (SocketAddress) UNIX_ADDRESS_OF.invoke(null, socketPath);
+			} catch(IllegalArgumentException | ReflectiveOperationException e) {
+				return;
+			}
+			// a socket file left behind by a killed process blocks the bind, but nobody answers on it any more
+			if(Files.exists(socketPath)) {
+				if(isServed(unix, address)) {
+					throw new IOException("Socket " + socketPath + " is served by another running timer.");
+				}
+				Files.deleteIfExists(socketPath);
+			}
+			socket = ServerSocketChannel.open(unix);
+			socket.bind(address);
+			SinkRunner.newThread("Status-Socket", this::acceptConnections).start();
+		}
+	}
+
+	/**
+	 * @return port of the HTTP server
+	 */
+	int getPort() {
+		return http.getAddress().getPort();
+	}
+
+	/**
+	 * @return {@code true} if the Unix domain socket was opened
+	 */
+	boolean hasSocket() {
+		return socket != null;
+	}
+
+	/**
+	 * @return number of answered requests
+	 */
+	long getRequests() {
+		return requests.sum();
+	}
+
+	/**
+	 * @return the JSON that is currently served
+	 */
+	String getJson() {
+		return new String(snapshot.json, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void accept(TimerState state) {
+		// the seconds until the next update change every second in verbose mode but are not served
+		if(lastState != null && lastState.getNowMinute() == state.getNowMinute() && lastState.getEndingMinute() == state.getEndingMinute()
+				&& lastState.getState() == state.getState() && lastState.getCurrentOvertime() == state.getCurrentOvertime()) {
+			return;
+		}
+		lastState = state;
+		int remaining = state.getState() == Deadline.State.RUNNING ? Minutes.until(state.getNowMinute(), state.getEndingMinute()) : 0;
+		snapshot = new Snapshot("{\"state\":\"" + state.getState()
+				+ "\",\"now\":\"" + Minutes.toString(state.getNowMinute())
+				+ "\",\"ending\":\"" + Minutes.toString(state.getEndingMinute())
+				+ "\",\"remainingMinutes\":" + remaining
+				+ ",\"currentOvertime\":" + state.getCurrentOvertime()
+				+ ",\"updated\":\"" + Instant.ofEpochSecond(Math.floorDiv(timeSource.millis(), 1000)) + "\"}");
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(http != null) {
+			http.stop(0);
+		}
+		if(socket != null) {
+			socket.close();
+			Files.deleteIfExists(socketPath);
+		}
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try(exchange) {
+			if(!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] json = snapshot.json;
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			if(exchange.getRequestMethod().equals("HEAD")) {
+				exchange.sendResponseHeaders(200, -1);
+			} else {
+				exchange.sendResponseHeaders(200, json.length);
+				try(OutputStream out = exchange.getResponseBody()) {
+					out.write(json);
+				}
+			}
+			requests.increment();
+		}
+	}
+
+	private void acceptConnections() {
+		while(true) {
+			SocketChannel connection;
+			try {
+				connection = socket.accept();
+			} catch(ClosedChannelException e) {
+				return;
+			} catch(IOException e) {
+				Logger.error(e);
+				return;
+			}
+			SinkRunner.newThread("Status-Connection", () -> answer(connection)).start();
+		}
+	}
+
+	/**
+	 * Reads the head of an HTTP request from {@code connection} and answers it with the current response, only its
+	 * head for {@code HEAD} requests and {@code 405 Method Not Allowed} for any method but {@code GET} and {@code HEAD}.
+	 */
+	private void answer(SocketChannel connection) {
+		try(connection) {
+			ByteBuffer request = ByteBuffer.allocate(MAX_REQUEST_SIZE);
+			int matched = 0;
+			while(matched < HEAD_END.length && request.hasRemaining()) {
+				int from = request.position();
+				if(connection.read(request) < 0) {
+					break;
+				}
+				for(int i = from; i < request.position() && matched < HEAD_END.length; i++) {
+					matched = request.get(i) == HEAD_END[matched] ? matched + 1 : request.get(i) == HEAD_END[0] ? 1 : 0;
+				}
+			}
+			Snapshot current = snapshot;
+			boolean head = startsWith(request, "HEAD ");
+			boolean allowed = head || startsWith(request, "GET ");
+			ByteBuffer response = allowed ? ByteBuffer.wrap(current.response, 0, head ? current.headLength : current.response.length)
+					: ByteBuffer.wrap(METHOD_NOT_ALLOWED);
+			while(response.hasRemaining()) {
+				connection.write(response);
+			}
+			if(allowed) {
+				requests.increment();
+			}
+		} catch(IOException e) {
+			// the client went away
+		}
+	}
+
+	/**
+	 * @return {@code true} if the bytes read into {@code request} start with {@code method}
+	 */
+	private static boolean startsWith(ByteBuffer request, String method) {
+		if(request.position() < method.length()) {
+			return false;
+		}
+		for(int i = 0; i < method.length(); i++) {
+			if(request.get(i) != method.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return {@code true} if a server accepts connections on {@code address}
+	 */
+	private static boolean isServed(ProtocolFamily unix, SocketAddress address) {
+		try(SocketChannel probe = SocketChannel.open(unix)) {
+			return probe.connect(address);
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	private static Method unixAddressOf() {
+		try {
+			return Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class);
+		} catch(ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Encoded responses of one state.
+	 */
+	private static final class Snapshot {
+		private final byte[] json;
+		private final byte[] response;
+		private final int headLength;
+
+		private Snapshot(String json) {
+			this.json = json.getBytes(StandardCharsets.UTF_8);
+			byte[] head = ("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + this.json.length + "\r\nConnection: close\r\n\r\n")
+					.getBytes(StandardCharsets.US_ASCII);
+			this.headLength = head.length;
+			this.response = new byte[head.length + this.json.length];
+			System.arraycopy(head, 0, response, 0, head.length);
+			System.arraycopy(this.json, 0, response, head.length, this.json.length);
+		}
+	}
+}
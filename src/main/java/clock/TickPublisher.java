@@ -0,0 +1,278 @@
+package clock;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import clock.Deadline.State;
+import clock.TimerEvent.Kind;
+
+/**
+ * <p>Publishes the states of a timer as {@link TimerEvent}s to any number of {@link Flow.Subscriber}s. Every
+ * published state is a {@link Kind#TICK}; a new state additionally is a {@link Kind#STATE_CHANGED} and every
+ * new minute in overtime an {@link Kind#OVERTIME_MINUTE}, both published before their tick.</p>
+ *
+ * <p>Every subscription is delivered on its own thread, a virtual thread if the JDK supports them, and only
+ * receives as many events as it requested. Instead of queueing, a subscription keeps only the latest tick and
+ * the latest overtime minute it did not receive yet, so a slow subscriber skips to the current state and never
+ * holds more than a few events; state changes are kept until they were delivered. Publishing creates every event
+ * once, hands the same instance to every subscription and never waits for a subscriber, so subscribers cannot
+ * delay the timekeeping.</p>
+ *
+ * <p>A subscriber that subscribes while the timer runs receives the latest tick first.</p>
+ */
+public final class TickPublisher implements Flow.Publisher<TimerEvent>, AutoCloseable {
+
+	private final List<TickSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final AtomicLong threads = new AtomicLong();
+
+	// guarded by this
+	private long sequence = 0;
+	private State lastState = null;
+	private long lastOvertime = 0;
+	private TimerEvent lastTick = null;
+	private boolean closed = false;
+
+	/**
+	 * Subscribes {@code subscriber} on a new thread.
+	 *
+	 * @param subscriber - subscriber of the events
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super TimerEvent> subscriber) {
+		subscribe(subscriber, "Tick-Subscriber-" + threads.incrementAndGet());
+	}
+
+	/**
+	 * Subscribes {@code subscriber} on a new thread named {@code name}.
+	 *
+	 * @param subscriber - subscriber of the events
+	 * @param name - name of the delivering thread
+	 */
+	void subscribe(Flow.Subscriber<? super TimerEvent> subscriber, String name) {
+		Objects.requireNonNull(subscriber, "Subscriber must not be null.");
+		TickSubscription subscription = new TickSubscription(subscriber);
+		synchronized(this) {
+			if(closed) {
+				subscription.complete();
+			} else {
+				if(lastTick != null) {
+					subscription.offer(lastTick);
+				}
+				subscriptions.add(subscription);
+			}
+		}
+		SinkRunner.newThread(name, subscription::deliver).start();
+	}
+
+	/**
+	 * Publishes the events of {@code state} to every subscription.
+	 *
+	 * @param state - latest state of the timer
+	 */
+	synchronized void publish(TimerState state) {
+		if(closed) {
+			return;
+		}
+		if(state.getState() != lastState) {
+			lastState = state.getState();
+			offer(new TimerEvent(Kind.STATE_CHANGED, ++sequence, state));
+		}
+		if(state.getState() == State.OVERTIME && state.getCurrentOvertime() > lastOvertime) {
+			lastOvertime = state.getCurrentOvertime();
+			offer(new TimerEvent(Kind.OVERTIME_MINUTE, ++sequence, state));
+		}
+		lastTick = new TimerEvent(Kind.TICK, ++sequence, state);
+		offer(lastTick);
+	}
+
+	/**
+	 * @return number of active subscriptions
+	 */
+	int getSubscribers() {
+		return subscriptions.size();
+	}
+
+	/**
+	 * Completes every subscription once it received the events it requested; later subscribers are completed
+	 * right away.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		for(TickSubscription subscription : subscriptions) {
+			subscription.complete();
+		}
+		subscriptions.clear();
+	}
+
+	private void offer(TimerEvent event) {
+		for(TickSubscription subscription : subscriptions) {
+			subscription.offer(event);
+		}
+	}
+
+	/**
+	 * Subscription with its own delivering thread; the lock is only held to exchange events and demand, never
+	 * while the subscriber runs.
+	 */
+	private final class TickSubscription implements Flow.Subscription {
+
+		private final Flow.Subscriber<? super TimerEvent> subscriber;
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition signal = lock.newCondition();
+
+		// guarded by lock
+		private final ArrayDeque<TimerEvent> changes = new ArrayDeque<>();
+		private TimerEvent tick = null;
+		private TimerEvent overtimeMinute = null;
+		private long demand = 0;
+		private boolean completed = false;
+		private boolean cancelled = false;
+		private IllegalArgumentException error = null;
+
+		private TickSubscription(Flow.Subscriber<? super TimerEvent> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			lock.lock();
+			try {
+				if(n <= 0) {
+					error = new IllegalArgumentException("Requested number of events has to be positive but is " + n + ".");
+				} else {
+					demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+				}
+				signal.signal();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			lock.lock();
+			try {
+				cancelled = true;
+				signal.signal();
+			} finally {
+				lock.unlock();
+			}
+			subscriptions.remove(this);
+		}
+
+		private void offer(TimerEvent event) {
+			lock.lock();
+			try {
+				switch(event.getKind()) {
+					case TICK: {
+						tick = event;
+					} break;
+					case OVERTIME_MINUTE: {
+						overtimeMinute = event;
+					} break;
+					default: {
+						changes.add(event);
+					}
+				}
+				signal.signal();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void complete() {
+			lock.lock();
+			try {
+				completed = true;
+				signal.signal();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Delivers the events in publishing order until the subscription is cancelled or completed.
+		 */
+		private void deliver() {
+			subscriber.onSubscribe(this);
+			while(true) {
+				TimerEvent next = null;
+				Throwable failure = null;
+				lock.lock();
+				try {
+					while(!cancelled && error == null && !(demand > 0 && hasPending()) && !completed) {
+						signal.await();
+					}
+					if(cancelled) {
+						return;
+					}
+					if(error != null) {
+						failure = error;
+						cancelled = true;
+					} else if(demand > 0 && hasPending()) {
+						next = poll();
+						demand--;
+					} else {
+						// completed and nothing left that was requested
+						cancelled = true;
+					}
+				} catch(InterruptedException e) {
+					cancelled = true;
+					return;
+				} finally {
+					lock.unlock();
+				}
+
+				if(failure != null) {
+					subscriptions.remove(this);
+					subscriber.onError(failure);
+					return;
+				}
+				if(next == null) {
+					subscriber.onComplete();
+					return;
+				}
+				try {
+					subscriber.onNext(next);
+				} catch(RuntimeException e) {
+					// a subscriber that throws is treated as cancelled
+					Logger.error(e);
+					cancel();
+					return;
+				}
+			}
+		}
+
+		private boolean hasPending() {
+			return tick != null || overtimeMinute != null || !changes.isEmpty();
+		}
+
+		/**
+		 * Takes the pending event with the lowest sequence number.
+		 */
+		private TimerEvent poll() {
+			TimerEvent next = changes.peek();
+			if(overtimeMinute != null && (next == null || overtimeMinute.getSequence() < next.getSequence())) {
+				next = overtimeMinute;
+			}
+			if(tick != null && (next == null || tick.getSequence() < next.getSequence())) {
+				next = tick;
+			}
+			if(next == tick) {
+				tick = null;
+			} else if(next == overtimeMinute) {
+				overtimeMinute = null;
+			} else {
+				changes.poll();
+			}
+			return next;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package clock;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Source of the time for the timekeeping: a {@link java.time.Clock} for the wall-clock and the time zone, a
+ * monotonic nanosecond counter to measure waits with and a way to wait. The system source uses an injected
+ * {@code java.time.Clock}, {@link System#nanoTime()} and {@link LockSupport#parkNanos(Object, long)};
+ * a {@link SimulatedTimeSource} lets whole timers run in a fraction of a second.</p>
+ */
+abstract class TimeSource {
+
+	/**
+	 * @return wall-clock and time zone of this source
+	 */
+	abstract java.time.Clock clock();
+
+	/**
+	 * @return current value of the monotonic counter in nanoseconds; only differences are meaningful
+	 */
+	abstract long nanoTime();
+
+	/**
+	 * Waits for at most {@code nanos} nanoseconds of the monotonic counter. May return early, e.g. on interrupts.
+	 *
+	 * @param nanos - nanoseconds to wait
+	 */
+	abstract void parkNanos(long nanos);
+
+	/**
+	 * @return current point in time in milliseconds since epoch
+	 */
+	long millis() {
+		return clock().millis();
+	}
+
+	ZoneId zone() {
+		return clock().getZone();
+	}
+
+	LocalDate today() {
+		return LocalDate.now(clock());
+	}
+
+	LocalTime now() {
+		return LocalTime.now(clock());
+	}
+
+	/**
+	 * Returns a source of the system clock in the default time zone. The time zone is looked up when the time is
+	 * read first, since loading its rules takes a noticeable part of the startup.
+	 *
+	 * @return source of the system clock in the default time zone
+	 */
+	static TimeSource system() {
+		return new TimeSource() {
+			private java.time.Clock clock;
+
+			@Override
+			java.time.Clock clock() {
+				// racing threads look up the same zone, the clock is immutable
+				java.time.Clock current = clock;
+				if(current == null) {
+					current = java.time.Clock.systemDefaultZone();
+					clock = current;
+				}
+				return current;
+			}
+
+			@Override
+			long nanoTime() {
+				return System.nanoTime();
+			}
+
+			@Override
+			void parkNanos(long nanos) {
+				LockSupport.parkNanos(this, nanos);
+			}
+		};
+	}
+
+	/**
+	 * @param clock - wall-clock to be used
+	 * @return source that reads the wall-clock from {@code clock} and waits on the system
+	 */
+	static TimeSource of(java.time.Clock clock) {
+		return new TimeSource() {
+			@Override
+			java.time.Clock clock() {
+				return clock;
+			}
+
+			@Override
+			long nanoTime() {
+				return System.nanoTime();
+			}
+
+			@Override
+			void parkNanos(long nanos) {
+				LockSupport.parkNanos(this, nanos);
+			}
+		};
+	}
+}
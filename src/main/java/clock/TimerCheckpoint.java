@@ -0,0 +1,330 @@
+package clock;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.zip.CRC32;
+
+import clock.Deadline.State;
+
+/**
+ * <p>Memory-mapped checkpoint of the running timer, so a timer whose process was killed can be resumed with its
+ * configuration and progress. The file has a header of {@value #HEADER_SIZE} bytes with a magic number and the
+ * version of the layout, followed by two slots of {@value #SLOT_SIZE} bytes:</p>
+ * <ul>
+ * 	<li>{@code long} generation of the checkpoint</li>
+ * 	<li>{@code long} time of the update in milliseconds since epoch</li>
+ * 	<li>{@code long} overtime of the timer in minutes</li>
+ * 	<li>{@code int} epoch day the timer started on</li>
+ * 	<li>{@code short} start, break, overtime and freetime as minutes of the day</li>
+ * 	<li>{@code byte} ordinal of the last {@link State}, {@code -1} before the first update</li>
+ * 	<li>{@code byte} flags: ending on the next day, finished</li>
+ * 	<li>{@code short} padding</li>
+ * 	<li>{@code int} CRC-32 of the bytes before it and {@code int} padding</li>
+ * </ul>
+ * <p>Every update increments the generation and writes the slot that does not hold the latest checkpoint, so a
+ * write that is torn by a crash of the machine leaves the previous checkpoint intact; {@link #read()} returns the
+ * valid slot with the highest generation. Updates only write to the mapped page and do not allocate, the operating
+ * system writes the page back even if the process is killed. Instances are thread-safe.</p>
+ *
+ * <p>Only one running timer owns the checkpoint: an instance holds an exclusive lock of the file until it is
+ * closed, so a second timer cannot overwrite the slots of the first. A checkpoint is marked finished once its
+ * session was recorded and counts as stale {@value #STALE_HOURS} hours after its last update.</p>
+ */
+class TimerCheckpoint implements Closeable {
+
+	static final String FILE_NAME = "clock.checkpoint";
+	static final int HEADER_SIZE = 8;
+	static final int SLOT_SIZE = 48;
+	static final int FILE_SIZE = HEADER_SIZE + 2 * SLOT_SIZE;
+	static final int STALE_HOURS = 12;
+
+	private static final int MAGIC = 0x434C4B43; // "CLKC"
+	private static final int VERSION = 1;
+	private static final int CHECKSUM_OFFSET = 40;
+	private static final int NEXT_DAY = 1;
+	private static final int FINISHED = 2;
+	// far behind the slots, so the lock never blocks the mapping on platforms with mandatory locks
+	private static final long LOCK_POSITION = Long.MAX_VALUE - 1;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer mapped;
+	private final byte[] slot = new byte[SLOT_SIZE];
+	private final ByteBuffer scratch = ByteBuffer.wrap(slot);
+	private final CRC32 crc = new CRC32();
+
+	// guarded by this
+	private long generation;
+	private int startEpochDay;
+	private int time;
+	private int breaktime;
+	private int overtime;
+	private int freetime;
+	private int flags;
+	private boolean started = false;
+	private State lastState;
+	private long lastOvertime;
+
+	/**
+	 * Opens the checkpoint at {@code file} and creates it if it does not exist.
+	 *
+	 * @param file - file of the checkpoint
+	 * @throws IOException if the file could not be opened or mapped or another running timer owns it
+	 */
+	TimerCheckpoint(File file) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			FileLock lock;
+			try {
+				lock = channel.tryLock(LOCK_POSITION, 1, false);
+			} catch(OverlappingFileLockException e) {
+				lock = null;
+			}
+			if(lock == null) {
+				throw new IOException("Checkpoint \"" + file + "\" is owned by another running timer.");
+			}
+			this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+		} catch(IOException e) {
+			channel.close();
+			throw e;
+		}
+		if(mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+			// new or foreign file, both slots are invalid afterwards
+			for(int i = 0; i < FILE_SIZE; i++) {
+				mapped.put(i, (byte) 0);
+			}
+			mapped.putInt(0, MAGIC).putInt(4, VERSION);
+		}
+		Snapshot latest = read();
+		this.generation = latest == null ? 0 : latest.generation;
+	}
+
+	/**
+	 * @param directory - directory of the log-files
+	 * @return the checkpoint file in {@code directory}
+	 */
+	static File checkpointFile(File directory) {
+		return new File(directory, FILE_NAME);
+	}
+
+	/**
+	 * Starts a new checkpoint for a timer; its state is unknown until the first {@link #update(State, long, long)}.
+	 *
+	 * @param startDate - date the timer started on
+	 * @param time - start of the timer
+	 * @param breaktime - length of the breaks
+	 * @param overtime - overtime added to the timer
+	 * @param freetime - freetime subtracted from the timer
+	 * @param nextDay - {@code true} if the timer ends on the next day
+	 * @param currentOvertime - minutes passed since the ending, e.g. of a resumed timer
+	 * @param nowMillis - current time in milliseconds since epoch
+	 */
+	synchronized void start(LocalDate startDate, LocalTime time, LocalTime breaktime, LocalTime overtime, LocalTime freetime, boolean nextDay,
+			long currentOvertime, long nowMillis) {
+		this.startEpochDay = (int) startDate.toEpochDay();
+		this.time = Minutes.of(time);
+		this.breaktime = Minutes.of(breaktime);
+		this.overtime = Minutes.of(overtime);
+		this.freetime = Minutes.of(freetime);
+		this.flags = nextDay ? NEXT_DAY : 0;
+		this.started = true;
+		write(null, currentOvertime, nowMillis);
+	}
+
+	/**
+	 * Writes the latest state of the timer started by {@link #start}.
+	 *
+	 * @param state - state of the timer
+	 * @param currentOvertime - minutes passed since the ending
+	 * @param nowMillis - current time in milliseconds since epoch
+	 */
+	synchronized void update(State state, long currentOvertime, long nowMillis) {
+		write(state, currentOvertime, nowMillis);
+	}
+
+	/**
+	 * Marks the timer started by {@link #start} as finished after its session was recorded. It can still be resumed.
+	 * Does nothing if no timer was started, so the checkpoint of the last timer stays intact.
+	 *
+	 * @param nowMillis - current time in milliseconds since epoch
+	 */
+	synchronized void finish(long nowMillis) {
+		if(!started) {
+			return;
+		}
+		flags |= FINISHED;
+		write(lastState, lastOvertime, nowMillis);
+	}
+
+	/**
+	 * @return the latest valid checkpoint; {@code null} if there is none
+	 */
+	synchronized Snapshot read() {
+		Snapshot latest = null;
+		for(int i = 0; i < 2; i++) {
+			mapped.position(HEADER_SIZE + i * SLOT_SIZE);
+			mapped.get(slot);
+			scratch.clear();
+			long slotGeneration = scratch.getLong(0);
+			if(slotGeneration > 0 && checksum() == scratch.getInt(CHECKSUM_OFFSET) && (latest == null || slotGeneration > latest.generation)) {
+				latest = new Snapshot(scratch);
+			}
+		}
+		return latest;
+	}
+
+	/**
+	 * Writes the checkpoint to the storage device, e.g. before the process ends.
+	 */
+	synchronized void force() {
+		mapped.force();
+	}
+
+	/**
+	 * Writes the checkpoint to the storage device and releases it for other timers.
+	 */
+	@Override
+	public void close() {
+		force();
+		try {
+			channel.close();
+		} catch(IOException e) {
+			Logger.error(e);
+		}
+	}
+
+	private void write(State state, long currentOvertime, long nowMillis) {
+		lastState = state;
+		lastOvertime = currentOvertime;
+		generation++;
+		scratch.clear();
+		scratch.putLong(generation)
+				.putLong(nowMillis)
+				.putLong(currentOvertime)
+				.putInt(startEpochDay)
+				.putShort((short) time)
+				.putShort((short) breaktime)
+				.putShort((short) overtime)
+				.putShort((short) freetime)
+				.put((byte) (state == null ? -1 : state.ordinal()))
+				.put((byte) flags)
+				.putShort((short) 0);
+		scratch.putInt(checksum()).putInt(0);
+		mapped.position(HEADER_SIZE + (int) (generation & 1) * SLOT_SIZE);
+		mapped.put(slot);
+	}
+
+	private int checksum() {
+		crc.reset();
+		crc.update(slot, 0, CHECKSUM_OFFSET);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Immutable view of a checkpoint.
+	 */
+	static final class Snapshot {
+		private final long generation;
+		private final long updatedMillis;
+		private final long currentOvertime;
+		private final LocalDate startDate;
+		private final LocalTime time;
+		private final LocalTime breaktime;
+		private final LocalTime overtime;
+		private final LocalTime freetime;
+		private final State state;
+		private final int flags;
+
+		private Snapshot(ByteBuffer slot) {
+			this.generation = slot.getLong(0);
+			this.updatedMillis = slot.getLong(8);
+			this.currentOvertime = slot.getLong(16);
+			this.startDate = LocalDate.ofEpochDay(slot.getInt(24));
+			this.time = Minutes.toLocalTime(slot.getShort(28));
+			this.breaktime = Minutes.toLocalTime(slot.getShort(30));
+			this.overtime = Minutes.toLocalTime(slot.getShort(32));
+			this.freetime = Minutes.toLocalTime(slot.getShort(34));
+			byte ordinal = slot.get(36);
+			this.state = ordinal < 0 ? null : State.values()[ordinal];
+			this.flags = slot.get(37);
+		}
+
+		long getGeneration() {
+			return generation;
+		}
+
+		/**
+		 * @return time of the last update in milliseconds since epoch
+		 */
+		long getUpdatedMillis() {
+			return updatedMillis;
+		}
+
+		/**
+		 * @return minutes passed since the ending at the last update
+		 */
+		long getCurrentOvertime() {
+			return currentOvertime;
+		}
+
+		LocalDate getStartDate() {
+			return startDate;
+		}
+
+		LocalTime getTime() {
+			return time;
+		}
+
+		LocalTime getBreaktime() {
+			return breaktime;
+		}
+
+		LocalTime getOvertime() {
+			return overtime;
+		}
+
+		LocalTime getFreetime() {
+			return freetime;
+		}
+
+		/**
+		 * @return state at the last update; {@code null} if the timer was not updated yet
+		 */
+		State getState() {
+			return state;
+		}
+
+		boolean isNextDay() {
+			return (flags & NEXT_DAY) != 0;
+		}
+
+		/**
+		 * @return {@code true} if the session of the timer was recorded
+		 */
+		boolean isFinished() {
+			return (flags & FINISHED) != 0;
+		}
+
+		/**
+		 * @param nowMillis - current time in milliseconds since epoch
+		 * @return {@code true} if the last update is more than {@value TimerCheckpoint#STALE_HOURS} hours before {@code nowMillis}
+		 */
+		boolean isStale(long nowMillis) {
+			return nowMillis - updatedMillis > STALE_HOURS * 3_600_000L;
+		}
+
+		@Override
+		public String toString() {
+			return "Snapshot [generation=" + generation + ", startDate=" + startDate + ", time=" + time + ", breaktime=" + breaktime + ", overtime="
+					+ overtime + ", freetime=" + freetime + ", state=" + state + ", currentOvertime=" + currentOvertime + ", finished=" + isFinished() + "]";
+		}
+	}
+}
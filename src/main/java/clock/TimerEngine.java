@@ -0,0 +1,152 @@
+package clock;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import clock.TimingWheel.Timeout;
+
+/**
+ * <p>Runs many timers in one process. Deadlines are kept in a {@link TimingWheel} that is advanced by a single
+ * ticker thread; expired timers are executed on a small pool of worker threads so slow tasks never delay the
+ * ticks of other timers.</p>
+ *
+ * <p>The ticker reads the wall-clock of a {@link TimeSource} and waits on it, so a wall-clock that jumps only moves
+ * the next tick; timers whose deadline was jumped over expire on it.</p>
+ */
+class TimerEngine implements Closeable {
+
+	static final long DEFAULT_TICK_MILLIS = 1000;
+
+	private final long tickMillis;
+	private final TimeSource source;
+	private final TimingWheel wheel;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final ExecutorService workers;
+	private final Thread ticker;
+
+	private volatile boolean running = true;
+
+	TimerEngine() {
+		this(DEFAULT_TICK_MILLIS, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), TimeSource.system());
+	}
+
+	/**
+	 * @param tickMillis - length of a tick in milliseconds; deadlines are rounded up to full ticks
+	 * @param workerCount - number of threads executing expired timers
+	 * @param source - source of the wall-clock, whose time zone applies to {@link #schedule(Deadline, LocalDate, Runnable)}
+	 */
+	TimerEngine(long tickMillis, int workerCount, TimeSource source) {
+		if(tickMillis < 1 || workerCount < 1) {
+			throw new IllegalArgumentException("Tick length and worker count have to be positive but are " + tickMillis + "ms and " + workerCount + ".");
+		}
+		this.tickMillis = tickMillis;
+		this.source = source;
+		this.wheel = new TimingWheel(Math.floorDiv(source.millis(), tickMillis));
+
+		AtomicInteger workerNumber = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+			Thread thread = new Thread(runnable, "Timer-Worker-" + workerNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.ticker = new Thread(this::tickLoop, "Timer-Ticker-Thread");
+		this.ticker.setDaemon(true);
+		this.ticker.start();
+	}
+
+	/**
+	 * Schedules {@code task} to be executed when {@code deadline} ends.
+	 *
+	 * @param deadline - deadline of the timer
+	 * @param startDate - date the timer started on
+	 * @param task - task to be executed at the ending
+	 * @return handle to cancel the timer
+	 */
+	Timeout schedule(Deadline deadline, LocalDate startDate, Runnable task) {
+		return scheduleAt(deadline.endingOn(startDate).atZone(source.zone()).toInstant().toEpochMilli(), task);
+	}
+
+	/**
+	 * Schedules {@code task} to be executed at {@code epochMillis}.
+	 *
+	 * @param epochMillis - point in time in milliseconds since epoch
+	 * @param task - task to be executed
+	 * @return handle to cancel the timer
+	 */
+	Timeout scheduleAt(long epochMillis, Runnable task) {
+		long deadlineTick = Math.floorDiv(epochMillis + tickMillis - 1, tickMillis);
+		lock.lock();
+		try {
+			return wheel.schedule(deadlineTick, task);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param timeout - handle of the timer
+	 * @return {@code true} if the timer was pending and is now cancelled; {@code false} otherwise
+	 */
+	boolean cancel(Timeout timeout) {
+		lock.lock();
+		try {
+			return wheel.cancel(timeout);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return number of pending timers
+	 */
+	int size() {
+		lock.lock();
+		try {
+			return wheel.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Advances the wheel to the tick of {@code epochMillis} and hands all expired timers to the workers.
+	 * Called by the ticker thread; exposed to drive the engine manually.
+	 *
+	 * @param epochMillis - current point in time in milliseconds since epoch
+	 * @return number of expired timers
+	 */
+	int tick(long epochMillis) {
+		lock.lock();
+		try {
+			return wheel.advance(Math.floorDiv(epochMillis, tickMillis), timeout -> workers.execute(timeout.getTask()));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		ticker.interrupt();
+		workers.shutdown();
+		try {
+			workers.awaitTermination(tickMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void tickLoop() {
+		while(running && !Thread.currentThread().isInterrupted()) {
+			long now = source.millis();
+			tick(now);
+			// waking up early only repeats the tick, which expires nothing new
+			source.parkNanos((tickMillis - Math.floorMod(now, tickMillis)) * 1_000_000);
+		}
+	}
+}
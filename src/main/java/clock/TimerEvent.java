@@ -0,0 +1,98 @@
+package clock;
+
+import java.time.LocalTime;
+
+import clock.Deadline.State;
+
+/**
+ * <p>Immutable event of a running timer that a {@link TickPublisher} hands to its subscribers. Every event is
+ * created once and the same instance is delivered to every subscriber.</p>
+ *
+ * <p>Events are numbered in the order they were published. A subscriber receives them in that order, but may
+ * miss ticks and overtime minutes that were replaced by later ones before it requested them; state changes are
+ * never skipped.</p>
+ */
+public final class TimerEvent {
+
+	/**
+	 * Kind of a {@link TimerEvent}.
+	 */
+	public static enum Kind {
+		/** the timer calculated its state; may be replaced by a later tick */
+		TICK,
+		/** the timer is {@link State#RUNNING}, {@link State#EXPIRED} or in {@link State#OVERTIME} now */
+		STATE_CHANGED,
+		/** another minute of overtime passed; may be replaced by a later overtime minute */
+		OVERTIME_MINUTE
+	}
+
+	private final Kind kind;
+	private final long sequence;
+	private final TimerState state;
+
+	/**
+	 * @param kind - kind of the event
+	 * @param sequence - number of the event in publishing order
+	 * @param state - state of the timer at the event
+	 */
+	TimerEvent(Kind kind, long sequence, TimerState state) {
+		this.kind = kind;
+		this.sequence = sequence;
+		this.state = state;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return number of the event in publishing order, starting at {@code 1}
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * @return state of the timer at the event
+	 */
+	public State getState() {
+		return state.getState();
+	}
+
+	/**
+	 * @return time of day of the event, truncated to the minute
+	 */
+	public LocalTime getNow() {
+		return Minutes.toLocalTime(state.getNowMinute());
+	}
+
+	/**
+	 * @return time of day the timer runs out at
+	 */
+	public LocalTime getEnding() {
+		return Minutes.toLocalTime(state.getEndingMinute());
+	}
+
+	/**
+	 * @return minutes until the ending while the timer is running; {@code 0} otherwise
+	 */
+	public long getMinutesLeft() {
+		return state.getState() == State.RUNNING ? Minutes.until(state.getNowMinute(), state.getEndingMinute()) : 0;
+	}
+
+	/**
+	 * @return minutes passed since the ending
+	 */
+	public long getCurrentOvertime() {
+		return state.getCurrentOvertime();
+	}
+
+	TimerState getTimerState() {
+		return state;
+	}
+
+	@Override
+	public String toString() {
+		return "TimerEvent [kind=" + kind + ", sequence=" + sequence + ", state=" + state + "]";
+	}
+}
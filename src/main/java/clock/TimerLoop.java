@@ -0,0 +1,218 @@
+package clock;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import clock.Deadline.State;
+
+/**
+ * <p>Timekeeping loop of a running timer. Every update it reads the wall-clock of its {@link TimeSource}, calculates
+ * the {@link State} of the {@link Deadline} from the minutes left until its ending date and time, publishes it to
+ * a {@link StateSink} and parks until the next boundary of the update resolution, or every second in verbose mode.
+ * Counting the minutes on the epoch keeps the state right across midnight and daylight saving changes.</p>
+ *
+ * <p>The state of a timer only moves forward: once the ending was reached, a wall-clock that jumps backwards
+ * neither shows the timer as running again nor reports the ending a second time. Jumps detected by the
+ * {@link WakeupScheduler} end the wait early and are reported to the {@link Diagnostics} of the loop, so the next
+ * update already uses the new time. The command line logs them; an {@link EmbeddedTimer} stays silent.</p>
+ *
+ * <p>With a {@link SimulatedTimeSource} a whole timer including its overtime runs in milliseconds.</p>
+ */
+class TimerLoop {
+
+	private final Deadline deadline;
+	private final TimeSource source;
+	private final WakeupScheduler scheduler;
+	private final StateSink target;
+	private final Diagnostics diagnostics;
+	private final long resolutionMillis;
+	private final boolean verbose;
+	private final LocalDate endingDate;
+	private final long endingEpochMinute;
+
+	private volatile boolean end = false;
+	private volatile long stopAtMillis = Long.MAX_VALUE;
+
+	private boolean nextDay;
+	private long currentOvertime = 0;
+	private State lastState = null;
+	private long updates = 0;
+
+	/**
+	 * @param deadline - deadline of the timer
+	 * @param startDate - date the timer started on
+	 * @param source - source of the time
+	 * @param target - receives every calculated state
+	 * @param resolutionMillis - milliseconds between two updates of the state
+	 * @param verbose - {@code true} to publish the state every second with the seconds until the next update
+	 */
+	TimerLoop(Deadline deadline, LocalDate startDate, TimeSource source, StateSink target, long resolutionMillis, boolean verbose) {
+		this(deadline, startDate, source, target, resolutionMillis, verbose, Diagnostics.LOGGER);
+	}
+
+	/**
+	 * @param deadline - deadline of the timer
+	 * @param startDate - date the timer started on
+	 * @param source - source of the time
+	 * @param target - receives every calculated state
+	 * @param resolutionMillis - milliseconds between two updates of the state
+	 * @param verbose - {@code true} to publish the state every second with the seconds until the next update
+	 * @param diagnostics - receives jumps of the wall-clock and interrupts of the waits
+	 */
+	TimerLoop(Deadline deadline, LocalDate startDate, TimeSource source, StateSink target, long resolutionMillis, boolean verbose,
+			Diagnostics diagnostics) {
+		this.deadline = deadline;
+		this.diagnostics = diagnostics;
+		this.source = source;
+		this.scheduler = new WakeupScheduler(source);
+		this.target = target;
+		this.resolutionMillis = resolutionMillis;
+		this.verbose = verbose;
+		this.nextDay = deadline.isNextDay();
+		LocalDateTime ending = deadline.endingOn(startDate);
+		this.endingDate = ending.toLocalDate();
+		this.endingEpochMinute = Math.floorDiv(ending.atZone(source.zone()).toInstant().toEpochMilli(), WakeupScheduler.MILLIS_PER_MINUTE);
+	}
+
+	/**
+	 * Runs the loop on the calling thread until {@link #stop()} is called or the time set by {@link #stopAt(long)} is reached.
+	 */
+	void run() {
+		ClockMonitor monitor = ClockMonitor.get();
+		long nowMillis;
+		while(!end && (nowMillis = source.millis()) < stopAtMillis) {
+			LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), source.zone());
+			int now = Minutes.of(dateTime.toLocalTime());
+			long minutesLeft = endingEpochMinute - Math.floorDiv(nowMillis, WakeupScheduler.MILLIS_PER_MINUTE);
+
+			State state = minutesLeft > 0 ? State.RUNNING : minutesLeft == 0 ? State.EXPIRED : State.OVERTIME;
+			if(lastState != null && state.ordinal() < lastState.ordinal()) {
+				// the wall-clock jumped backwards over the ending, keep the last state and overtime
+				state = lastState;
+			} else {
+				nextDay = dateTime.toLocalDate().isBefore(endingDate);
+				currentOvertime = Math.max(0, -minutesLeft);
+			}
+			lastState = state;
+			updates++;
+			monitor.timerState(deadline.getEndingMinute(), state, currentOvertime, nextDay);
+
+			// the state only changes at the next boundary, so park until exactly then
+			long nextChange = WakeupScheduler.nextBoundary(nowMillis, resolutionMillis);
+			try {
+				boolean reached = true;
+				if(verbose) {
+					long second = WakeupScheduler.nextBoundary(nowMillis, WakeupScheduler.MILLIS_PER_SECOND);
+					for(; reached && second <= nextChange && !end; second += WakeupScheduler.MILLIS_PER_SECOND) {
+						target.accept(new TimerState(now, deadline.getEndingMinute(), state, currentOvertime, (nextChange - second) / WakeupScheduler.MILLIS_PER_SECOND + 1));
+						reached = scheduler.parkUntil(second);
+					}
+				} else {
+					target.accept(new TimerState(now, deadline.getEndingMinute(), state, currentOvertime, -1));
+					reached = scheduler.parkUntil(nextChange);
+				}
+				if(!reached) {
+					diagnostics.wallClockJumped(scheduler.getLastJumpMillis());
+				}
+			} catch (InterruptedException e) {
+				if(end) {
+					// stopped while waiting
+					return;
+				}
+				diagnostics.interrupted(e);
+				if(verbose) {
+					System.out.println("Thread was interrupted while sleeping!");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Ends the loop after the current update; interrupting the thread of the loop afterwards ends its wait.
+	 */
+	void stop() {
+		end = true;
+	}
+
+	/**
+	 * Ends the loop once the wall-clock of the time source reaches {@code epochMillis}.
+	 *
+	 * @param epochMillis - point in time in milliseconds since epoch
+	 */
+	void stopAt(long epochMillis) {
+		stopAtMillis = epochMillis;
+	}
+
+	WakeupScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * @return minutes passed since the ending at the last update
+	 */
+	long getCurrentOvertime() {
+		return currentOvertime;
+	}
+
+	/**
+	 * @return {@code true} if the ending was on the next day at the last update
+	 */
+	boolean isNextDay() {
+		return nextDay;
+	}
+
+	/**
+	 * @return state of the timer at the last update; {@code null} before the first update
+	 */
+	State getLastState() {
+		return lastState;
+	}
+
+	/**
+	 * @return number of calculated states
+	 */
+	long getUpdates() {
+		return updates;
+	}
+
+	/**
+	 * Receiver of the irregularities of a running loop.
+	 */
+	interface Diagnostics {
+
+		/** writes the irregularities to the log-file */
+		Diagnostics LOGGER = new Diagnostics() {
+			@Override
+			public void wallClockJumped(long millis) {
+				Logger.warning("Wall-clock jumped by {} ms, recalculating the timer.", millis);
+			}
+
+			@Override
+			public void interrupted(InterruptedException e) {
+				Logger.error(e);
+			}
+		};
+
+		/** ignores the irregularities */
+		Diagnostics NONE = new Diagnostics() {
+			@Override
+			public void wallClockJumped(long millis) {
+			}
+
+			@Override
+			public void interrupted(InterruptedException e) {
+			}
+		};
+
+		/**
+		 * @param millis - length of the jump in milliseconds; negative if the wall-clock jumped backwards
+		 */
+		void wallClockJumped(long millis);
+
+		/**
+		 * @param e - interrupt of a wait that did not stop the loop
+		 */
+		void interrupted(InterruptedException e);
+	}
+}
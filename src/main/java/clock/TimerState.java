@@ -0,0 +1,56 @@
+package clock;
+
+import clock.Deadline.State;
+
+/**
+ * <p>Immutable snapshot of a running timer that the timekeeping loop publishes to its output sinks.</p>
+ */
+final class TimerState {
+
+	private final int now;
+	private final int ending;
+	private final State state;
+	private final long currentOvertime;
+	private final long secondsUntilUpdate;
+
+	/**
+	 * @param now - point in time of the snapshot as {@link Minutes}
+	 * @param ending - ending of the timer as {@link Minutes}
+	 * @param state - state of the timer at {@code now}
+	 * @param currentOvertime - minutes passed since the ending
+	 * @param secondsUntilUpdate - seconds until the next change of the state; negative if not tracked
+	 */
+	TimerState(int now, int ending, State state, long currentOvertime, long secondsUntilUpdate) {
+		this.now = now;
+		this.ending = ending;
+		this.state = state;
+		this.currentOvertime = currentOvertime;
+		this.secondsUntilUpdate = secondsUntilUpdate;
+	}
+
+	int getNowMinute() {
+		return now;
+	}
+
+	int getEndingMinute() {
+		return ending;
+	}
+
+	State getState() {
+		return state;
+	}
+
+	long getCurrentOvertime() {
+		return currentOvertime;
+	}
+
+	long getSecondsUntilUpdate() {
+		return secondsUntilUpdate;
+	}
+
+	@Override
+	public String toString() {
+		return "TimerState [now=" + Minutes.toString(now) + ", ending=" + Minutes.toString(ending) + ", state=" + state + ", currentOvertime=" + currentOvertime
+				+ ", secondsUntilUpdate=" + secondsUntilUpdate + "]";
+	}
+}
@@ -0,0 +1,202 @@
+package clock;
+
+import java.util.function.Consumer;
+
+/**
+ * <p>Hierarchical timing wheel with {@value #LEVELS} levels of {@value #WHEEL_SIZE} buckets each. Level {@code l}
+ * covers deadlines up to {@code 64^(l+1)} ticks ahead, so with one-second ticks the wheel spans about 194 days;
+ * deadlines beyond that are parked in the top level and re-inserted whenever their bucket comes up.</p>
+ *
+ * <p>Every bucket is a circular doubly-linked list, so inserting and cancelling a timeout is O(1). Advancing the
+ * wheel by one tick expires one bucket of the lowest level and, at the boundaries of the higher levels, cascades
+ * one of their buckets down. Advancing an empty wheel is O(1) regardless of the number of ticks.</p>
+ *
+ * <p>Instances are not thread-safe; the {@link TimerEngine} only uses them while holding its lock.</p>
+ */
+class TimingWheel {
+
+	static final int WHEEL_BITS = 6;
+	static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	static final int LEVELS = 4;
+
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final long RANGE = 1L << (WHEEL_BITS * LEVELS);
+
+	private final Timeout[][] buckets = new Timeout[LEVELS][WHEEL_SIZE];
+
+	private long currentTick;
+	private int size = 0;
+
+	/**
+	 * @param startTick - tick the wheel starts at; the first call of {@link #advance(long, Consumer)} processes the tick after it
+	 */
+	TimingWheel(long startTick) {
+		this.currentTick = startTick;
+		for(int level = 0; level < LEVELS; level++) {
+			for(int slot = 0; slot < WHEEL_SIZE; slot++) {
+				buckets[level][slot] = new Timeout(0, null);
+			}
+		}
+	}
+
+	/**
+	 * Inserts a timeout that expires at {@code deadlineTick}. Deadlines that already passed expire with the next tick.
+	 *
+	 * @param deadlineTick - tick at which the timeout expires
+	 * @param task - task to be handed to the expiry consumer
+	 * @return handle of the inserted timeout
+	 */
+	Timeout schedule(long deadlineTick, Runnable task) {
+		Timeout timeout = new Timeout(deadlineTick, task);
+		insert(timeout, false);
+		size++;
+		return timeout;
+	}
+
+	/**
+	 * Removes a timeout from the wheel.
+	 *
+	 * @param timeout - timeout to be removed
+	 * @return {@code true} if the timeout was pending and is now cancelled; {@code false} if it already expired or was cancelled
+	 */
+	boolean cancel(Timeout timeout) {
+		if(timeout.state != Timeout.PENDING) {
+			return false;
+		}
+		unlink(timeout);
+		timeout.state = Timeout.CANCELLED;
+		size--;
+		return true;
+	}
+
+	/**
+	 * Processes all ticks up to and including {@code toTick} and hands every expired timeout to {@code expired}.
+	 *
+	 * @param toTick - last tick to be processed
+	 * @param expired - consumer for expired timeouts
+	 * @return number of expired timeouts
+	 */
+	int advance(long toTick, Consumer<Timeout> expired) {
+		int count = 0;
+		while(currentTick < toTick) {
+			if(size == 0) {
+				currentTick = toTick;
+				break;
+			}
+			long tick = ++currentTick;
+
+			for(int level = LEVELS - 1; level > 0; level--) {
+				if((tick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+					cascade(level, (int) (tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+				}
+			}
+
+			Timeout head = buckets[0][(int) tick & WHEEL_MASK];
+			while(head.next != head) {
+				Timeout timeout = head.next;
+				unlink(timeout);
+				timeout.state = Timeout.EXPIRED;
+				size--;
+				count++;
+				expired.accept(timeout);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return number of pending timeouts
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return last processed tick
+	 */
+	long getCurrentTick() {
+		return currentTick;
+	}
+
+	private void cascade(int level, int slot) {
+		Timeout head = buckets[level][slot];
+		while(head.next != head) {
+			Timeout timeout = head.next;
+			unlink(timeout);
+			insert(timeout, true);
+		}
+	}
+
+	/**
+	 * @param cascading - {@code true} while cascading the current tick, whose bucket of the lowest level is expired
+	 * afterwards; timeouts due on it are placed there instead of the next tick
+	 */
+	private void insert(Timeout timeout, boolean cascading) {
+		long placement = Math.max(timeout.deadlineTick, cascading ? currentTick : currentTick + 1);
+		long delta = placement - currentTick;
+		if(delta >= RANGE) {
+			placement = currentTick + RANGE - 1;
+			delta = RANGE - 1;
+		}
+
+		int level = 0;
+		while(delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+			level++;
+		}
+		Timeout head = buckets[level][(int) (placement >>> (WHEEL_BITS * level)) & WHEEL_MASK];
+
+		timeout.prev = head.prev;
+		timeout.next = head;
+		head.prev.next = timeout;
+		head.prev = timeout;
+	}
+
+	private static void unlink(Timeout timeout) {
+		timeout.prev.next = timeout.next;
+		timeout.next.prev = timeout.prev;
+		timeout.prev = null;
+		timeout.next = null;
+	}
+
+	/**
+	 * Handle of a single timeout in a {@link TimingWheel}. The bucket heads of the wheel are timeouts without a task.
+	 */
+	static final class Timeout {
+		private static final int PENDING = 0;
+		private static final int EXPIRED = 1;
+		private static final int CANCELLED = 2;
+
+		private final long deadlineTick;
+		private final Runnable task;
+
+		private Timeout prev = this;
+		private Timeout next = this;
+		private volatile int state = PENDING;
+
+		private Timeout(long deadlineTick, Runnable task) {
+			this.deadlineTick = deadlineTick;
+			this.task = task;
+		}
+
+		long getDeadlineTick() {
+			return deadlineTick;
+		}
+
+		Runnable getTask() {
+			return task;
+		}
+
+		boolean isExpired() {
+			return state == EXPIRED;
+		}
+
+		boolean isCancelled() {
+			return state == CANCELLED;
+		}
+
+		@Override
+		public String toString() {
+			return "Timeout [deadlineTick=" + deadlineTick + ", state=" + (state == PENDING ? "PENDING" : state == EXPIRED ? "EXPIRED" : "CANCELLED") + "]";
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package clock;
+
+
+/**
+ * <p>Parks the calling thread until a given point in wall-clock time instead of sleeping for fixed intervals.
+ * The wait is measured with the monotonic counter of a {@link TimeSource} and corrected against its wall-clock
+ * after every wakeup, so spurious wakeups and drift between both clocks never cause an early return.</p>
+ *
+ * <p>Long waits are split into slices of at most {@value #MAX_PARK_MILLIS} ms. After every slice the elapsed
+ * wall-clock time is compared with the elapsed monotonic time; a difference of more than
+ * {@value #JUMP_THRESHOLD_MILLIS} ms is a jump of the wall-clock (NTP correction, suspend and resume) and ends the
+ * wait early, so the caller can recalculate its state for the new time instead of waiting for a boundary that moved.
+ * Smaller differences are accumulated as drift and compensated by the correction.</p>
+ */
+class WakeupScheduler {
+
+	static final long MILLIS_PER_SECOND = 1000;
+	static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+	static final long MAX_PARK_MILLIS = 5 * MILLIS_PER_SECOND;
+	static final long JUMP_THRESHOLD_MILLIS = 1000;
+
+	private final TimeSource source;
+	private final long createdNanos;
+	private long wakeups = 0;
+	private long jumps = 0;
+	private long lastJumpMillis = 0;
+	private long driftMillis = 0;
+
+	WakeupScheduler() {
+		this(TimeSource.system());
+	}
+
+	/**
+	 * @param source - source of the wall-clock and the monotonic counter
+	 */
+	WakeupScheduler(TimeSource source) {
+		this.source = source;
+		this.createdNanos = source.nanoTime();
+	}
+
+	/**
+	 * Returns the next multiple of {@code resolutionMillis} after {@code epochMillis}, e.g. the start of the next
+	 * minute for a resolution of {@link #MILLIS_PER_MINUTE}. Time zone offsets are whole minutes, so minute
+	 * boundaries in epoch time are minute boundaries in local time as well.
+	 *
+	 * @param epochMillis - current point in time in milliseconds since epoch
+	 * @param resolutionMillis - resolution of the boundary in milliseconds
+	 * @return next boundary in milliseconds since epoch
+	 */
+	static long nextBoundary(long epochMillis, long resolutionMillis) {
+		return (Math.floorDiv(epochMillis, resolutionMillis) + 1) * resolutionMillis;
+	}
+
+	/**
+	 * Parks the current thread until the wall-clock reached {@code epochMillis} or jumped.
+	 *
+	 * @param epochMillis - point in time to wake up at in milliseconds since epoch
+	 * @return {@code true} if {@code epochMillis} was reached; {@code false} if the wait ended early because the wall-clock jumped
+	 * @throws InterruptedException if the thread was interrupted while parking
+	 */
+	boolean parkUntil(long epochMillis) throws InterruptedException {
+		long nowMillis = source.millis();
+		long remainingMillis = epochMillis - nowMillis;
+		while(remainingMillis > 0) {
+			long startNanos = source.nanoTime();
+			long startMillis = nowMillis;
+			long parkNanos = Math.min(remainingMillis, MAX_PARK_MILLIS) * 1_000_000;
+			long deadlineNanos = startNanos + parkNanos;
+			long remainingNanos = parkNanos;
+			while(remainingNanos > 0) {
+				source.parkNanos(remainingNanos);
+				if(Thread.interrupted()) {
+					throw new InterruptedException("Interrupted while waiting for the next update.");
+				}
+				long currentNanos = source.nanoTime();
+				nowMillis = source.millis();
+				if(isJump(startMillis, nowMillis, currentNanos - startNanos)) {
+					return false;
+				}
+				remainingNanos = deadlineNanos - currentNanos;
+			}
+			// correct the drift between the monotonic and the wall-clock
+			driftMillis += (nowMillis - startMillis) - (source.nanoTime() - startNanos) / 1_000_000;
+			remainingMillis = epochMillis - nowMillis;
+		}
+		wakeups++;
+		ClockMonitor.get().tick(epochMillis, nowMillis);
+		return true;
+	}
+
+	/**
+	 * Records a jump if the wall-clock moved by more than the threshold besides the elapsed monotonic time.
+	 */
+	private boolean isJump(long startMillis, long nowMillis, long elapsedNanos) {
+		long difference = (nowMillis - startMillis) - elapsedNanos / 1_000_000;
+		if(Math.abs(difference) <= JUMP_THRESHOLD_MILLIS) {
+			return false;
+		}
+		jumps++;
+		lastJumpMillis = difference;
+		return true;
+	}
+
+	/**
+	 * @return number of completed wakeups
+	 */
+	long getWakeups() {
+		return wakeups;
+	}
+
+	/**
+	 * @return number of detected jumps of the wall-clock
+	 */
+	long getJumps() {
+		return jumps;
+	}
+
+	/**
+	 * @return length of the last detected jump in milliseconds; negative if the wall-clock jumped backwards
+	 */
+	long getLastJumpMillis() {
+		return lastJumpMillis;
+	}
+
+	/**
+	 * @return accumulated difference between the wall-clock and the monotonic counter below the jump threshold in milliseconds
+	 */
+	long getDriftMillis() {
+		return driftMillis;
+	}
+
+	/**
+	 * @return average number of wakeups per hour since the creation of this scheduler
+	 */
+	double getWakeupsPerHour() {
+		double hours = (source.nanoTime() - createdNanos) / 3_600_000_000_000.0;
+		return hours <= 0 ? 0 : wakeups / hours;
+	}
+}